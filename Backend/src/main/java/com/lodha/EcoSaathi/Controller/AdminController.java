@@ -1,20 +1,36 @@
 package com.lodha.EcoSaathi.Controller;
 
 
+import com.lodha.EcoSaathi.Dto.BulkActionResult;
+import com.lodha.EcoSaathi.Dto.BulkIdsRequest;
+import com.lodha.EcoSaathi.Dto.BulkScheduleRequest;
+import com.lodha.EcoSaathi.Dto.DispatchPlan;
+import com.lodha.EcoSaathi.Dto.DispatchRequest;
+import com.lodha.EcoSaathi.Dto.IssuePage;
+import com.lodha.EcoSaathi.Dto.NearestAgent;
+import com.lodha.EcoSaathi.Dto.RequestPage;
+import com.lodha.EcoSaathi.Dto.RoutePlan;
 import com.lodha.EcoSaathi.Dto.UserDto;
 import com.lodha.EcoSaathi.Entity.PickupPerson;
 import com.lodha.EcoSaathi.Entity.Request;
 import com.lodha.EcoSaathi.Entity.User;
 import com.lodha.EcoSaathi.Entity.Issue;
+import com.lodha.EcoSaathi.Service.DispatchService;
 import com.lodha.EcoSaathi.Service.PickupPersonService;
+import com.lodha.EcoSaathi.Service.RequestBulkService;
 import com.lodha.EcoSaathi.Service.RequestService;
+import com.lodha.EcoSaathi.Service.RoutePlanningService;
 import com.lodha.EcoSaathi.Service.IssueService;
+import com.lodha.EcoSaathi.Service.NotificationService;
+import com.lodha.EcoSaathi.Service.OutboxService;
 import com.lodha.EcoSaathi.Service.UserService;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -31,19 +47,33 @@ public class AdminController {
     private final RequestService requestService;
     private final PickupPersonService pickupPersonService;
     private final IssueService issueService;
+    private final RequestBulkService requestBulkService;
+    private final OutboxService outboxService;
+    private final NotificationService notificationService;
+    private final RoutePlanningService routePlanningService;
+    private final DispatchService dispatchService;
 
     public AdminController(UserService userService, RequestService requestService,
-                           PickupPersonService pickupPersonService, IssueService issueService) {
+                           PickupPersonService pickupPersonService, IssueService issueService,
+                           RequestBulkService requestBulkService, OutboxService outboxService,
+                           NotificationService notificationService, RoutePlanningService routePlanningService,
+                           DispatchService dispatchService) {
         this.userService = userService;
         this.requestService = requestService;
         this.pickupPersonService = pickupPersonService;
         this.issueService = issueService;
+        this.requestBulkService = requestBulkService;
+        this.outboxService = outboxService;
+        this.notificationService = notificationService;
+        this.routePlanningService = routePlanningService;
+        this.dispatchService = dispatchService;
     }
 
     // --- ISSUE MANAGEMENT ---
     @GetMapping("/all")
-    public List<Issue> getAllIssues() {
-        return issueService.getAllIssues();
+    public IssuePage getAllIssues(@RequestParam(required = false) String cursor,
+                                  @RequestParam(defaultValue = "50") int size) {
+        return issueService.getIssueSummaries(null, null, cursor, size);
     }
 
     @PutMapping("/issue/reply/{id}")
@@ -105,6 +135,19 @@ public class AdminController {
         );
     }
 
+    // --- EMAIL OUTBOX ---
+    // Queue depth and delivery state of outgoing emails
+    @GetMapping("/outbox/stats")
+    public Map<String, Object> getOutboxStats() {
+        return outboxService.getStats();
+    }
+
+    // Background notification writer: queue depth, batch sizes, flush latency
+    @GetMapping("/notifications/writer-stats")
+    public Map<String, Object> getNotificationWriterStats() {
+        return notificationService.getWriterMetrics();
+    }
+
     // --- REQUEST MANAGEMENT ---
     @GetMapping("/requests/pending")
     public List<Request> getPendingRequests() {
@@ -116,6 +159,19 @@ public class AdminController {
         return requestService.getAllRequests();
     }
 
+    // 🔹 Paginated listing: GET /api/admin/requests?status=PENDING&size=50&cursor=...
+    @GetMapping("/requests")
+    public RequestPage getRequestPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String deviceType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return requestService.getRequestPage(status, deviceType, from, to, cursor, size, includeTotal);
+    }
+
     @PutMapping("/request/approve/{id}")
     public Request approveRequest(@PathVariable Long id) {
         return requestService.approveRequest(id);
@@ -140,6 +196,42 @@ public class AdminController {
         return requestService.completeRequest(id);
     }
 
+    // 🔹 Bulk actions: one round trip, one transaction, one result per id
+    @PutMapping("/requests/bulk/approve")
+    public List<BulkActionResult> bulkApprove(@RequestBody BulkIdsRequest payload) {
+        return requestBulkService.bulkApprove(payload.getIds());
+    }
+
+    @PutMapping("/requests/bulk/schedule")
+    public List<BulkActionResult> bulkSchedule(@RequestBody BulkScheduleRequest payload) {
+        return requestBulkService.bulkSchedule(payload.getIds(), payload.getScheduledTime(), payload.getPickupPersonId());
+    }
+
+    // 🔹 Closest agents to the request's pickup address, to help choose whom to schedule
+    @GetMapping("/request/{id}/nearest-agents")
+    public List<NearestAgent> getNearestAgents(@PathVariable Long id, @RequestParam(defaultValue = "5") int k) {
+        // Stored coordinates only; rows still missing them are filled by the background backfill
+        Request request = requestService.findById(id);
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            throw new RuntimeException("Location of request #" + id + " is not known yet.");
+        }
+        return pickupPersonService.findNearestAgents(request.getLatitude(), request.getLongitude(), k);
+    }
+
+    // 🔹 Planned visit order for every agent with pickups on the day (default today)
+    @GetMapping("/routes")
+    public List<RoutePlan> getRoutes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return routePlanningService.planAll(date != null ? date : LocalDate.now());
+    }
+
+    // 🔹 Assign every APPROVED request to the best agent in one go (scheduled through the normal path)
+    @PostMapping("/requests/dispatch")
+    public DispatchPlan dispatchApproved(@RequestBody DispatchRequest payload) {
+        return dispatchService.dispatch(payload.getScheduledTime(), payload.getCapacityPerAgent(),
+                Boolean.TRUE.equals(payload.getDryRun()));
+    }
+
     // --- PICKUP PERSON MANAGEMENT ---
     @PostMapping("/pickuppersons")
     public PickupPerson addPickupPerson(@RequestBody PickupPerson pickupPerson) {
@@ -1,11 +1,11 @@
 package com.lodha.EcoSaathi.Controller;
 
+import com.lodha.EcoSaathi.Dto.IssuePage;
 import com.lodha.EcoSaathi.Dto.ReplyRequest; // Import DTO
 import com.lodha.EcoSaathi.Entity.Issue;
 import com.lodha.EcoSaathi.Service.IssueService;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -31,18 +31,19 @@ public class IssueController {
         return issueService.createIssue(pickupId, "PICKUP", payload.get("subject"), payload.get("description"));
     }
 
-    // 3. Get All Issues (For Admin)
+    // 3. Get All Issues (For Admin) - summaries, newest activity first: ?size=50, then ?cursor=<nextCursor>
     @GetMapping("/all")
-    public List<Issue> getAllIssues() {zz
-        // Debugging log backend console me dikhega
-        System.out.println("Fetching all issues for Admin...");
-        return issueService.getAllIssues();
+    public IssuePage getAllIssues(@RequestParam(required = false) String cursor,
+                                  @RequestParam(defaultValue = "50") int size) {
+        return issueService.getIssueSummaries(null, null, cursor, size);
     }
 
-    // 4. Get User Issues
+    // 4. Get User Issues (summaries; open a ticket for its messages)
     @GetMapping("/user/{userId}")
-    public List<Issue> getUserIssues(@PathVariable Long userId) {
-        return issueService.getIssuesByUser(userId);
+    public IssuePage getUserIssues(@PathVariable Long userId,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "50") int size) {
+        return issueService.getIssueSummaries(userId, null, cursor, size);
     }
 
     // 5. Get Single Ticket Details (Chat)
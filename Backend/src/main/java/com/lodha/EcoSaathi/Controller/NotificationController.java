@@ -2,7 +2,9 @@ package com.lodha.EcoSaathi.Controller;
 
 import com.lodha.EcoSaathi.Entity.Notification;
 import com.lodha.EcoSaathi.Service.NotificationService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,9 +19,18 @@ public class NotificationController {
         this.notificationService = notificationService;
     }
 
+    // Paged feed: ?limit=N for the newest, then ?before=<last id>&limit=N for older ones
     @GetMapping("/user/{userId}")
-    public List<Notification> getUserNotifications(@PathVariable Long userId) {
-        return notificationService.getUserNotifications(userId);
+    public List<Notification> getUserNotifications(@PathVariable Long userId,
+                                                   @RequestParam(required = false) Long before,
+                                                   @RequestParam(defaultValue = "20") int limit) {
+        return notificationService.getUserNotifications(userId, before, limit);
+    }
+
+    // ✅ NEW: live stream of notifications and unread count (Server-Sent Events)
+    @GetMapping(path = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable Long userId) {
+        return notificationService.subscribe(userId);
     }
 
     // Add to NotificationController.java
@@ -33,6 +44,11 @@ public class NotificationController {
         notificationService.markAsRead(id);
     }
 
+    @PutMapping("/user/{userId}/read-all")
+    public int markAllAsRead(@PathVariable Long userId) {
+        return notificationService.markAllAsRead(userId);
+    }
+
     @DeleteMapping("/user/{userId}")
     public void clearAll(@PathVariable Long userId) {
         notificationService.clearAll(userId);
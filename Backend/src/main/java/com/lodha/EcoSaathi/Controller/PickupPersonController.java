@@ -1,13 +1,26 @@
 package com.lodha.EcoSaathi.Controller;
 
+import com.lodha.EcoSaathi.Dto.BatchEta;
+import com.lodha.EcoSaathi.Dto.EtaBatchRequest;
+import com.lodha.EcoSaathi.Dto.RoutePlan;
 import com.lodha.EcoSaathi.Entity.PickupPerson;
 import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Service.LiveLocationStore;
+import com.lodha.EcoSaathi.Service.LocationTrailLog;
 import com.lodha.EcoSaathi.Service.PickupPersonService;
 import com.lodha.EcoSaathi.Service.RequestService;
+import com.lodha.EcoSaathi.Service.RoutePlanningService;
+import com.lodha.EcoSaathi.Service.TrackingPushService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,10 +32,27 @@ public class PickupPersonController {
 
     private final PickupPersonService pickupPersonService;
     private final RequestService requestService;
+    private final LiveLocationStore liveLocationStore;
+    private final LocationTrailLog locationTrailLog;
+    private final TrackingPushService trackingPushService;
+    private final RoutePlanningService routePlanningService;
+    private final long trailMinutesBefore;
+    private final long trailMinutesAfter;
 
-    public PickupPersonController(PickupPersonService pickupPersonService, RequestService requestService) {
+    public PickupPersonController(PickupPersonService pickupPersonService, RequestService requestService,
+                                  LiveLocationStore liveLocationStore, LocationTrailLog locationTrailLog,
+                                  TrackingPushService trackingPushService,
+                                  RoutePlanningService routePlanningService,
+                                  @Value("${app.location.trail-window-before-minutes:120}") long trailMinutesBefore,
+                                  @Value("${app.location.trail-window-after-minutes:240}") long trailMinutesAfter) {
         this.pickupPersonService = pickupPersonService;
         this.requestService = requestService;
+        this.liveLocationStore = liveLocationStore;
+        this.locationTrailLog = locationTrailLog;
+        this.trackingPushService = trackingPushService;
+        this.routePlanningService = routePlanningService;
+        this.trailMinutesBefore = trailMinutesBefore;
+        this.trailMinutesAfter = trailMinutesAfter;
     }
 
     // ---------------------------------------------------------------
@@ -52,6 +82,35 @@ public class PickupPersonController {
         return pickupPersonService.getPickupPersonById(id);
     }
 
+    // ---------------------------------------------------------------
+    // TODAY'S ROUTE: scheduled pickups in an optimized visit order
+    // ---------------------------------------------------------------
+    @GetMapping("/{id}/route")
+    public RoutePlan getRoute(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        return routePlanningService.planForAgent(id, date != null ? date : LocalDate.now());
+    }
+
+    // ---------------------------------------------------------------
+    // BATCH ETA: distance and minutes to many stops in one call
+    // ---------------------------------------------------------------
+    @PostMapping("/{id}/etas")
+    public BatchEta getEtas(@PathVariable Long id, @RequestBody EtaBatchRequest payload) {
+        Double latitude = payload.getLatitude();
+        Double longitude = payload.getLongitude();
+        if (latitude == null || longitude == null) {
+            LiveLocationStore.Location location = liveLocationStore.locate(pickupPersonService.getPickupPersonById(id));
+            if (location == null) {
+                throw new RuntimeException("Pickup Person GPS Offline");
+            }
+            latitude = location.latitude();
+            longitude = location.longitude();
+        }
+        return requestService.calculateEtas(latitude, longitude, payload.getRequestIds());
+    }
+
     // ---------------------------------------------------------------
     // MARK REQUEST AS COMPLETED
     // ---------------------------------------------------------------
@@ -81,9 +140,12 @@ public class PickupPersonController {
         }
 
         Map<String, Object> data = new HashMap<>();
+        LiveLocationStore.Location location = liveLocationStore.locate(person);
+        Double latitude = location != null ? location.latitude() : null;
+        Double longitude = location != null ? location.longitude() : null;
 
         String origin = request.getPickupLocation();
-        String destination = person.getLatitude() + "," + person.getLongitude();
+        String destination = latitude + "," + longitude;
 
         String encodedOrigin = origin != null ?
                 URLEncoder.encode(origin, StandardCharsets.UTF_8) :
@@ -98,8 +160,9 @@ public class PickupPersonController {
                         + encodedDestination;
 
         data.put("pickupPersonName", person.getName());
-        data.put("pickupLatitude", person.getLatitude());
-        data.put("pickupLongitude", person.getLongitude());
+        data.put("pickupLatitude", latitude);
+        data.put("pickupLongitude", longitude);
+        data.put("locationUpdatedAt", location != null ? location.updatedAt() : null);
         data.put("userAddress", origin);
         data.put("googleMapsUrl", googleMapsUrl);
 
@@ -109,16 +172,51 @@ public class PickupPersonController {
     // ---------------------------------------------------------------
     // UPDATE LIVE LOCATION
     // ---------------------------------------------------------------
+    // Kept in memory; LiveLocationStore writes the latest position to the DB on its own schedule
     @PutMapping("/location/update/{id}")
-    public PickupPerson updateLocation(
+    public LiveLocationStore.Location updateLocation(
             @PathVariable Long id,
             @RequestParam Double latitude,
             @RequestParam Double longitude
     ) {
-        PickupPerson person = pickupPersonService.getPickupPersonById(id);
-        person.setLatitude(latitude);
-        person.setLongitude(longitude);
-        return pickupPersonService.save(person);
+        LiveLocationStore.Location location = liveLocationStore.update(id, latitude, longitude);
+        locationTrailLog.append(id, latitude, longitude);
+        trackingPushService.publishLocation(id, location);
+        return location;
+    }
+
+    // ---------------------------------------------------------------
+    // LIVE TRACKING STREAM (SSE): position, distance and ETA on every move
+    // ---------------------------------------------------------------
+    @GetMapping(path = "/request/{requestId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTracking(@PathVariable Long requestId) {
+        return trackingPushService.subscribe(requestId);
+    }
+
+    // ---------------------------------------------------------------
+    // ROUTE REPLAY
+    // ---------------------------------------------------------------
+    @GetMapping("/{id}/trail")
+    public List<LocationTrailLog.TrailPoint> getTrail(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return locationTrailLog.replay(id, from, to);
+    }
+
+    // Route of the assigned agent around the scheduled pickup time
+    @GetMapping("/request/{requestId}/trail")
+    public List<LocationTrailLog.TrailPoint> getRequestTrail(@PathVariable Long requestId) {
+        Request request = requestService.findById(requestId);
+        PickupPerson person = request.getAssignedPickupPerson();
+        if (person == null || request.getScheduledTime() == null) {
+            throw new RuntimeException("Request #" + requestId + " has not been scheduled with a pickup person yet.");
+        }
+        LocalDateTime from = request.getScheduledTime().minusMinutes(trailMinutesBefore);
+        LocalDateTime to = request.getScheduledTime().plusMinutes(trailMinutesAfter);
+        LocalDateTime now = LocalDateTime.now();
+        return locationTrailLog.replay(person.getId(), from, to.isAfter(now) ? now : to);
     }
 
     // ---------------------------------------------------------------
@@ -134,14 +232,19 @@ public class PickupPersonController {
             throw new RuntimeException("No Pickup Person assigned yet.");
         }
 
+        LiveLocationStore.Location location = liveLocationStore.locate(person);
+        Double latitude = location != null ? location.latitude() : null;
+        Double longitude = location != null ? location.longitude() : null;
+
         Map<String, Object> data = new HashMap<>();
         data.put("name", person.getName());
-        data.put("latitude", person.getLatitude());
-        data.put("longitude", person.getLongitude());
+        data.put("latitude", latitude);
+        data.put("longitude", longitude);
+        data.put("locationUpdatedAt", location != null ? location.updatedAt() : null);
         data.put("pickupAddress", request.getPickupLocation());
 
         String origin = request.getPickupLocation();
-        String destination = person.getLatitude() + "," + person.getLongitude();
+        String destination = latitude + "," + longitude;
 
         String encodedOrigin = URLEncoder.encode(origin, StandardCharsets.UTF_8);
         String encodedDestination = URLEncoder.encode(destination, StandardCharsets.UTF_8);
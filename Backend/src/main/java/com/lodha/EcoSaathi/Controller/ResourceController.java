@@ -1,52 +1,227 @@
 package com.lodha.EcoSaathi.Controller;
 
-import com.lodha.EcoSaathi.Config.FileStorageProperties;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import com.lodha.EcoSaathi.Service.FileStorageService;
+import com.lodha.EcoSaathi.Service.ImageDerivativeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 public class ResourceController {
 
-    private final Path fileStorageLocation;
+    // Tomcat's sendfile hand-off: the connector streams the file itself (kernel zero-copy)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
-    public ResourceController(FileStorageProperties fileStorageProperties) {
-        // Resolve the storage location from the config
-        this.fileStorageLocation = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+    // Upload names (SHA-256 or UUID) never change content, so browsers may cache them forever
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    // Variant requested but not generated yet: the original is served, so let it be re-checked
+    private static final String CACHE_REVALIDATE = "public, max-age=60";
+
+    // Only image types are ever sent; anything else (e.g. an old .html or .svg upload) is a download
+    private static final Map<String, MediaType> IMAGE_TYPES = Map.of(
+            "jpg", MediaType.IMAGE_JPEG,
+            "jpeg", MediaType.IMAGE_JPEG,
+            "png", MediaType.IMAGE_PNG,
+            "gif", MediaType.IMAGE_GIF,
+            "webp", MediaType.parseMediaType("image/webp"));
+
+    private final FileStorageService fileStorageService;
+    private final ImageDerivativeService imageDerivativeService;
+
+    public ResourceController(FileStorageService fileStorageService, ImageDerivativeService imageDerivativeService) {
+        this.fileStorageService = fileStorageService;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
-    // Endpoint to serve the image file: GET /images/{fileName}
+    // Endpoint to serve the image file: GET /images/{fileName} (legacy flat uploads)
+    // Optional ?variant=thumb|medium serves the downscaled copy once it has been generated
     @GetMapping("/images/{fileName:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String fileName) {
+    public void serveFile(@PathVariable String fileName,
+                          @RequestParam(required = false) String variant,
+                          HttpServletRequest request,
+                          HttpServletResponse response) {
+        serve(fileName, variant, request, response);
+    }
+
+    // Content-addressed uploads: GET /images/ab/cd/{sha256}.{ext} (the blob itself is ab/cd/{sha256})
+    @GetMapping("/images/{shard1:[0-9a-f]{2}}/{shard2:[0-9a-f]{2}}/{fileName:.+}")
+    public void serveShardedFile(@PathVariable String shard1,
+                                 @PathVariable String shard2,
+                                 @PathVariable String fileName,
+                                 @RequestParam(required = false) String variant,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) {
+        serve(shard1 + "/" + shard2 + "/" + fileName, variant, request, response);
+    }
+
+    private void serve(String key, String variantParam, HttpServletRequest request, HttpServletResponse response) {
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() || resource.isReadable()) {
-                // Determine file's content type (basic check)
-                String contentType = "image/jpeg";
-                if (fileName.endsWith(".png")) {
-                    contentType = "image/png";
-                } else if (fileName.endsWith(".gif")) {
-                    contentType = "image/gif";
+            Path filePath = fileStorageService.resolve(key);
+            // Content-addressed blobs have no extension on disk; the key's extension picks the type
+            String typeName = key;
+            String cacheControl = CACHE_IMMUTABLE;
+
+            // Fall back to the original until the variant has been generated
+            ImageDerivativeService.Variant variant = ImageDerivativeService.Variant.fromParam(variantParam);
+            if (variant != null) {
+                Path variantPath = imageDerivativeService.findVariant(key, variant);
+                if (variantPath != null) {
+                    filePath = variantPath;
+                    typeName = variantPath.getFileName().toString();
+                } else {
+                    cacheControl = CACHE_REVALIDATE;
                 }
+            }
 
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
+            if (!Files.isRegularFile(filePath) || !Files.isReadable(filePath)) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+
+            BasicFileAttributes attrs = Files.readAttributes(filePath, BasicFileAttributes.class);
+            long length = attrs.size();
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            String fileName = filePath.getFileName().toString();
+            String etag = "\"" + Long.toHexString(length) + "-" + fileName + "\"";
+
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader("X-Content-Type-Options", "nosniff");
+
+            if (notModified(request, etag, lastModified)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            response.setContentType(contentTypeOf(typeName).toString());
+
+            long start = 0;
+            long end = length - 1;
+            long[] range = requestedRange(request, etag, length);
+            if (range != null) {
+                if (range.length == 0) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+
+            long count = end - start + 1;
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod()) || count == 0) return;
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, filePath.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+
+            // No sendfile (e.g. TLS connector): channel-to-channel copy without a heap buffer per chunk
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+                OutputStream out = response.getOutputStream();
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = start;
+                while (count > 0) {
+                    long sent = channel.transferTo(position, count, target);
+                    if (sent <= 0) break;
+                    position += sent;
+                    count -= sent;
+                }
+                out.flush();
             }
         } catch (Exception ex) {
             System.err.println("Error serving file: " + ex.getMessage());
-            return ResponseEntity.internalServerError().build();
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    private static MediaType contentTypeOf(String name) {
+        int dot = name.lastIndexOf('.');
+        String ext = dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return IMAGE_TYPES.getOrDefault(ext, MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if ("*".equals(tag) || etag.equals(tag)) return true;
+            }
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            // HTTP dates have second precision
+            return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return null to send the whole file, an empty array if the range cannot be satisfied,
+     *         otherwise {start, endInclusive}. Multi-range requests get the whole file.
+     */
+    private long[] requestedRange(HttpServletRequest request, String etag, long length) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !header.startsWith("bytes=") || header.contains(",")) return null;
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !etag.equals(ifRange.trim())) return null;
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+
+        try {
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (from.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(to);
+                if (suffix <= 0) return new long[0];
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(from);
+                end = to.isEmpty() ? length - 1 : Math.min(Long.parseLong(to), length - 1);
+            }
+            if (start >= length || start > end) return new long[0];
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 }
@@ -0,0 +1,18 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.Data;
+
+/**
+ * Distances and ETAs from one position to many requests, as parallel arrays
+ * in the order the ids were asked for. -1 marks a request that does not
+ * exist or whose address could not be located.
+ */
+@Data
+public class BatchEta {
+
+    private double fromLatitude;
+    private double fromLongitude;
+    private long[] requestIds;
+    private double[] distanceKm;
+    private int[] etaMinutes;
+}
@@ -0,0 +1,30 @@
+package com.lodha.EcoSaathi.Dto;
+
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import lombok.Data;
+
+@Data
+public class BulkActionResult {
+
+    private Long id;
+    private boolean success;
+    private RequestStatus status; // status after the action (current status if it failed)
+    private String error;
+
+    public static BulkActionResult ok(Long id, RequestStatus status) {
+        BulkActionResult result = new BulkActionResult();
+        result.setId(id);
+        result.setSuccess(true);
+        result.setStatus(status);
+        return result;
+    }
+
+    public static BulkActionResult failed(Long id, RequestStatus status, String error) {
+        BulkActionResult result = new BulkActionResult();
+        result.setId(id);
+        result.setSuccess(false);
+        result.setStatus(status);
+        result.setError(error);
+        return result;
+    }
+}
@@ -0,0 +1,11 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Bulk admin actions: the request ids to act on
+@Data
+public class BulkIdsRequest {
+    private List<Long> ids;
+}
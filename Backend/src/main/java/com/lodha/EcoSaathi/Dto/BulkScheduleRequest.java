@@ -0,0 +1,14 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Bulk schedule: the request ids plus the time and agent applied to all of them
+@Data
+public class BulkScheduleRequest {
+    private List<Long> ids;
+    private LocalDateTime scheduledTime;
+    private Long pickupPersonId;
+}
@@ -0,0 +1,31 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class DispatchPlan {
+
+    private LocalDateTime scheduledTime;
+    private String method;      // HUNGARIAN (exact) or GREEDY (large inputs)
+    private long solveMillis;
+    private double totalKm;     // sum of agent-to-request distances
+
+    private List<Assignment> assignments = new ArrayList<>();
+
+    // APPROVED requests left out: no free agent, or the address could not be located
+    private List<Long> unassignedRequestIds = new ArrayList<>();
+
+    // Outcome of scheduling through the normal path; null for a dry run
+    private List<BulkActionResult> results;
+
+    @Data
+    public static class Assignment {
+        private Long requestId;
+        private Long pickupPersonId;
+        private double distanceKm;
+    }
+}
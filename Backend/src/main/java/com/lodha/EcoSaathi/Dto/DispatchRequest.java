@@ -0,0 +1,13 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Batch dispatch of all APPROVED requests; dryRun only returns the plan
+@Data
+public class DispatchRequest {
+    private LocalDateTime scheduledTime;
+    private Integer capacityPerAgent;
+    private Boolean dryRun;
+}
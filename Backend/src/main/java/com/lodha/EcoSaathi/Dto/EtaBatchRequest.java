@@ -0,0 +1,13 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Batch ETA: request ids, plus a position (defaults to the agent's last known one)
+@Data
+public class EtaBatchRequest {
+    private List<Long> requestIds;
+    private Double latitude;
+    private Double longitude;
+}
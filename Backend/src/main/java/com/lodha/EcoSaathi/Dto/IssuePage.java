@@ -0,0 +1,15 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class IssuePage {
+
+    private List<IssueSummary> items;
+
+    // Opaque cursor for the next page; null when there are no more rows
+    private String nextCursor;
+    private boolean hasMore;
+}
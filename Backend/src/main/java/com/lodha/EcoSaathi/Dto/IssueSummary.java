@@ -0,0 +1,23 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row of a ticket list, built by a JPQL constructor expression (no messages loaded)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IssueSummary {
+
+    private Long id;
+    private String subject;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastUpdatedAt;
+    private String reporterName;       // user's first name, or the pickup person's name
+    private long messageCount;
+    private String lastMessagePreview; // first 120 characters of the newest message
+}
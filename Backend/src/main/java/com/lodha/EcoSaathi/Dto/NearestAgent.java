@@ -0,0 +1,19 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class NearestAgent {
+
+    private Long pickupPersonId;
+    private String name;
+    private String vehicleNumber;
+    private String vehicleType;
+    private double latitude;
+    private double longitude;
+    private double distanceKm;
+    private int etaMinutes;
+    private LocalDateTime locationUpdatedAt; // null when the position is only the stored one
+}
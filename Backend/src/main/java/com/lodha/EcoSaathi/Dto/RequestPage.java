@@ -0,0 +1,19 @@
+package com.lodha.EcoSaathi.Dto;
+
+import com.lodha.EcoSaathi.Entity.Request;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RequestPage {
+
+    private List<Request> items;
+
+    // Opaque cursor for the next page; null when there are no more rows
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Only filled when the caller asked for it (includeTotal=true), otherwise null
+    private Long totalCount;
+}
@@ -0,0 +1,37 @@
+package com.lodha.EcoSaathi.Dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class RoutePlan {
+
+    private Long pickupPersonId;
+    private LocalDate date;
+
+    // Where the route starts: the agent's last known position (null if unknown)
+    private Double startLatitude;
+    private Double startLongitude;
+
+    private List<Stop> stops = new ArrayList<>();
+    private double totalKm;
+    private double scheduledOrderKm; // same stops driven in scheduled-time order, for comparison
+
+    // Requests whose address could not be located; visit them after the planned stops
+    private List<Long> unlocatedRequestIds = new ArrayList<>();
+
+    @Data
+    public static class Stop {
+        private int sequence;
+        private Long requestId;
+        private String pickupLocation;
+        private LocalDateTime scheduledTime;
+        private double latitude;
+        private double longitude;
+        private double legKm; // from the previous stop (or the start)
+    }
+}
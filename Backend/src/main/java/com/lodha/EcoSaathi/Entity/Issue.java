@@ -8,7 +8,10 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "issues")
+@Table(name = "issues", indexes = {
+        // Admin inbox: newest activity first, keyset-paged on (last_updated_at, id)
+        @Index(name = "idx_issues_last_updated", columnList = "last_updated_at, id")
+})
 public class Issue {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -34,6 +37,8 @@ public class Issue {
     @JoinColumn(name = "pickup_person_id")
     private PickupPerson pickupPerson;
 
-    @OneToMany(mappedBy = "issue", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // Loaded only when a ticket is opened; list views use IssueSummary instead
+    @OneToMany(mappedBy = "issue", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OrderBy("createdAt ASC")
     private List<IssueMessage> messages = new ArrayList<>();
 }
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.lodha.EcoSaathi.Entity;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // Unread counts and unread-first listings
+        @Index(name = "idx_notifications_user_read_created", columnList = "user_id, is_read, created_at"),
+        // Retention purge of old read notifications
+        @Index(name = "idx_notifications_read_created", columnList = "is_read, created_at")
+})
 public class Notification {
 
     @Id
@@ -20,7 +26,9 @@ public class Notification {
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
-    @ManyToOne
+    // Not part of the JSON: the client already knows whose feed it asked for
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 }
\ No newline at end of file
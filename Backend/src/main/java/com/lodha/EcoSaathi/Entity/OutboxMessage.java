@@ -0,0 +1,57 @@
+package com.lodha.EcoSaathi.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.time.LocalDateTime;
+
+/**
+ * A side effect (currently: an email) recorded in the same transaction as the
+ * state change that caused it, and delivered later by the OutboxDispatcher.
+ */
+@Data
+@Entity
+@Table(name = "outbox_messages", indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at, id"),
+        @Index(name = "idx_outbox_recipient_status", columnList = "recipient, status, id")
+})
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String channel = "EMAIL";
+
+    private String recipient;
+
+    @Column(length = 500)
+    private String subject;
+
+    @Lob
+    @Column(columnDefinition = "LONGTEXT")
+    private String body;
+
+    // Plain varchar rather than a MySQL ENUM, so adding a status needs no ALTER
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    // ✅ Non-urgent updates that may be merged into one digest per recipient
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean coalescible = false;
+
+    // Digest row this message was merged into
+    private Long mergedIntoId;
+
+    private int attempts = 0;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,8 @@
+package com.lodha.EcoSaathi.Entity;
+
+public enum OutboxStatus {
+    PENDING,   // waiting for (re)delivery
+    SENT,      // delivered
+    FAILED,    // gave up after the maximum number of attempts
+    MERGED     // folded into a digest sent to the same recipient
+}
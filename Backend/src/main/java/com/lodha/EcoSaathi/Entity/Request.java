@@ -7,7 +7,13 @@ import java.util.List; // Import List
 
 @Data
 @Entity
-@Table(name = "requests")
+@Table(name = "requests", indexes = {
+        // Keyset pagination for the admin listing walks (created_at, id) newest first
+        @Index(name = "idx_requests_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_requests_status_created_id", columnList = "status, created_at, id"),
+        // A day's scheduled pickups for route planning
+        @Index(name = "idx_requests_status_scheduled", columnList = "status, scheduled_time")
+})
 public class Request {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,7 +22,12 @@ public class Request {
     private String type;
     private String description;
     private String pickupLocation;
-    private String status = "PENDING";
+
+    // Resolved once from pickupLocation at submit time (null if geocoding failed)
+    private Double latitude;
+    private Double longitude;
+    @Enumerated(EnumType.STRING)
+    private RequestStatus status = RequestStatus.PENDING;
     private String pickupOtp;
 
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -44,4 +55,9 @@ public class Request {
     private PickupPerson assignedPickupPerson;
 
     private boolean isPickupPersonAssigned = false;
+
+    // Optimistic lock: a stale full-entity save fails instead of overwriting a newer status
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version = 0L;
 }
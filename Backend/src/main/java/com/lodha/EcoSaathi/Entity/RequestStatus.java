@@ -0,0 +1,51 @@
+package com.lodha.EcoSaathi.Entity;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle of a pickup request and the transitions allowed between states.
+ *
+ * PENDING ──► APPROVED ──► SCHEDULED ──► COMPLETED
+ *    │            │
+ *    └──────┬─────┘
+ *           ▼
+ *       REJECTED
+ */
+public enum RequestStatus {
+    PENDING,
+    APPROVED,
+    SCHEDULED,
+    COMPLETED,
+    REJECTED;
+
+    private static final Map<RequestStatus, Set<RequestStatus>> TRANSITIONS = new EnumMap<>(RequestStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(APPROVED, REJECTED));
+        TRANSITIONS.put(APPROVED, EnumSet.of(SCHEDULED, REJECTED));
+        TRANSITIONS.put(SCHEDULED, EnumSet.of(COMPLETED));
+        TRANSITIONS.put(COMPLETED, EnumSet.noneOf(RequestStatus.class));
+        TRANSITIONS.put(REJECTED, EnumSet.noneOf(RequestStatus.class));
+    }
+
+    public boolean canTransitionTo(RequestStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    public Set<RequestStatus> allowedNext() {
+        return Collections.unmodifiableSet(TRANSITIONS.get(this));
+    }
+
+    // States a request can be in right before moving to the given one
+    public static Set<RequestStatus> sourcesOf(RequestStatus target) {
+        Set<RequestStatus> sources = EnumSet.noneOf(RequestStatus.class);
+        for (RequestStatus s : values()) {
+            if (s.canTransitionTo(target)) sources.add(s);
+        }
+        return sources;
+    }
+}
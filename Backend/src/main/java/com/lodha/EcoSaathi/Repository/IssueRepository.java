@@ -1,10 +1,13 @@
 package com.lodha.EcoSaathi.Repository;
 
+import com.lodha.EcoSaathi.Dto.IssueSummary;
 import com.lodha.EcoSaathi.Entity.Issue;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface IssueRepository extends JpaRepository<Issue, Long> {
@@ -16,6 +19,26 @@ public interface IssueRepository extends JpaRepository<Issue, Long> {
     @Query("SELECT i FROM Issue i WHERE i.pickupPerson.id = :pickupId")
     List<Issue> findByPickupPersonId(@Param("pickupId") Long pickupId);
 
+    // ✅ Ticket list rows computed in SQL: message count and newest-message preview come from
+    // subqueries on issue_messages, so no message rows are loaded. Newest activity first,
+    // keyset-paged on (lastUpdatedAt, id); userId / pickupPersonId narrow it to one reporter.
+    @Query("SELECT new com.lodha.EcoSaathi.Dto.IssueSummary(i.id, i.subject, i.status, i.createdAt, i.lastUpdatedAt, " +
+            "COALESCE(u.firstName, p.name), " +
+            "(SELECT COUNT(m) FROM IssueMessage m WHERE m.issue = i), " +
+            "(SELECT SUBSTRING(lm.message, 1, 120) FROM IssueMessage lm WHERE lm.id = " +
+            "(SELECT MAX(m2.id) FROM IssueMessage m2 WHERE m2.issue = i))) " +
+            "FROM Issue i LEFT JOIN i.user u LEFT JOIN i.pickupPerson p " +
+            "WHERE (:userId IS NULL OR u.id = :userId) " +
+            "AND (:pickupPersonId IS NULL OR p.id = :pickupPersonId) " +
+            "AND (:cursorUpdatedAt IS NULL OR i.lastUpdatedAt < :cursorUpdatedAt " +
+            "OR (i.lastUpdatedAt = :cursorUpdatedAt AND i.id < :cursorId)) " +
+            "ORDER BY i.lastUpdatedAt DESC, i.id DESC")
+    List<IssueSummary> findSummaries(@Param("userId") Long userId,
+                                     @Param("pickupPersonId") Long pickupPersonId,
+                                     @Param("cursorUpdatedAt") LocalDateTime cursorUpdatedAt,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable pageable);
+
     @Transactional
     void deleteByUserId(Long userId);
 }
\ No newline at end of file
@@ -2,15 +2,43 @@ package com.lodha.EcoSaathi.Repository;
 
 import com.lodha.EcoSaathi.Entity.Notification;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    // Fetch notifications for a user, newest first
-    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // ✅ Feed pages, newest first. Served by the user_id index (InnoDB appends the id to it),
+    // so cost depends on the page size, not on how many notifications the user has.
+    List<Notification> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+
+    List<Notification> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long before, Pageable pageable);
+
     // Add to NotificationRepository.java
     long countByUserIdAndIsReadFalse(Long userId);
 
+    // ✅ One DELETE statement (the derived version loaded every row and deleted them one by one)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM Notification n WHERE n.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // ✅ Retention: ids of old read notifications, oldest first, one chunk at a time
+    @Query("SELECT n.id FROM Notification n WHERE n.isRead = true AND n.createdAt < :cutoff ORDER BY n.createdAt ASC")
+    List<Long> findReadIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ✅ Mark all read in one statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Transactional
-    void deleteByUserId(Long userId);
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllRead(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.lodha.EcoSaathi.Repository;
+
+import com.lodha.EcoSaathi.Entity.OutboxMessage;
+import com.lodha.EcoSaathi.Entity.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Oldest due messages first
+    @Query("SELECT m FROM OutboxMessage m WHERE m.status = :status AND m.nextAttemptAt <= :now ORDER BY m.id ASC")
+    List<OutboxMessage> findDue(@Param("status") OutboxStatus status,
+                                @Param("now") LocalDateTime now,
+                                Pageable pageable);
+
+    // Pending digest candidates for one recipient, including ones still inside their window
+    @Query("SELECT m FROM OutboxMessage m WHERE m.recipient = :recipient AND m.status = :status " +
+           "AND m.coalescible = true AND m.attempts = 0 ORDER BY m.id ASC")
+    List<OutboxMessage> findCoalescible(@Param("recipient") String recipient,
+                                        @Param("status") OutboxStatus status,
+                                        Pageable pageable);
+
+    long countByStatus(OutboxStatus status);
+
+    @Query("SELECT MIN(m.createdAt) FROM OutboxMessage m WHERE m.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") OutboxStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxMessage m WHERE m.status IN :statuses AND m.sentAt < :before")
+    int deleteSentBefore(@Param("statuses") Collection<OutboxStatus> statuses, @Param("before") LocalDateTime before);
+}
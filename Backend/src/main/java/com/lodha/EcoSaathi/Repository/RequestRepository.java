@@ -1,9 +1,18 @@
 package com.lodha.EcoSaathi.Repository;
 
+import com.lodha.EcoSaathi.Entity.PickupPerson;
 import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,4 +24,112 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
 
     // ✅ NEW: Fetch all requests assigned to a specific pickup person
     List<Request> findByAssignedPickupPersonId(Long pickupPersonId);
+
+    List<Request> findByStatus(RequestStatus status);
+
+    // 🔹 Stats: one GROUP BY instead of loading every request
+    @Query("SELECT r.status, COUNT(r) FROM Request r GROUP BY r.status")
+    List<Object[]> countGroupByStatus();
+
+    @Query("SELECT r.status, COUNT(r) FROM Request r WHERE r.user.id = :userId GROUP BY r.status")
+    List<Object[]> countGroupByStatusForUser(@Param("userId") Long userId);
+
+    // 🔹 Keyset page for the admin listing: newest first, strictly after the (createdAt, id) cursor.
+    // Null filters are ignored. Pass PageRequest.of(0, n) to cap the rows; no count query is issued.
+    @Query("SELECT r FROM Request r JOIN FETCH r.user LEFT JOIN FETCH r.assignedPickupPerson " +
+            "WHERE (:status IS NULL OR r.status = :status) " +
+            "AND (:deviceType IS NULL OR r.deviceType = :deviceType) " +
+            "AND (:from IS NULL OR r.createdAt >= :from) " +
+            "AND (:to IS NULL OR r.createdAt < :to) " +
+            "AND (:cursorCreatedAt IS NULL OR r.createdAt < :cursorCreatedAt " +
+            "     OR (r.createdAt = :cursorCreatedAt AND r.id < :cursorId)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Request> findPage(@Param("status") RequestStatus status,
+                           @Param("deviceType") String deviceType,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to,
+                           @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                           @Param("cursorId") Long cursorId,
+                           Pageable pageable);
+
+    @Query("SELECT COUNT(r) FROM Request r " +
+            "WHERE (:status IS NULL OR r.status = :status) " +
+            "AND (:deviceType IS NULL OR r.deviceType = :deviceType) " +
+            "AND (:from IS NULL OR r.createdAt >= :from) " +
+            "AND (:to IS NULL OR r.createdAt < :to)")
+    long countFiltered(@Param("status") RequestStatus status,
+                       @Param("deviceType") String deviceType,
+                       @Param("from") LocalDateTime from,
+                       @Param("to") LocalDateTime to);
+
+    // 🔹 Batch ETA: only the columns needed, no entity hydration: [id, latitude, longitude]
+    @Query("SELECT r.id, r.latitude, r.longitude FROM Request r WHERE r.id IN :ids")
+    List<Object[]> findCoordinatesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 🔹 Backfill coordinates without rewriting the rest of the row
+    @Modifying
+    @Transactional
+    @Query("UPDATE Request r SET r.latitude = :lat, r.longitude = :lng WHERE r.id = :id")
+    int updateCoordinates(@Param("id") Long id, @Param("lat") Double lat, @Param("lng") Double lng);
+
+    // 🔹 Upload cleanup: is any request still pointing at this blob (under any extension)?
+    @Query("SELECT COUNT(r) > 0 FROM Request r JOIN r.photoUrls p WHERE p LIKE :pattern")
+    boolean existsPhotoUrlLike(@Param("pattern") String pattern);
+
+    // 🔹 Coordinate backfill: open rows still missing a location, walked by id
+    @Query("SELECT r FROM Request r WHERE r.latitude IS NULL AND r.id > :afterId " +
+            "AND r.status IN :statuses ORDER BY r.id")
+    List<Request> findMissingCoordinates(@Param("afterId") Long afterId,
+                                         @Param("statuses") Collection<RequestStatus> statuses,
+                                         Pageable pageable);
+
+    // 🔹 Compare-and-set status transitions: only applies if the row is still in the expected state.
+    // Returns the number of rows changed (0 means someone else moved the request first).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Request r SET r.status = :to, r.version = r.version + 1 " +
+            "WHERE r.id = :id AND r.status = :from")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("from") RequestStatus from,
+                            @Param("to") RequestStatus to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Request r SET r.status = :to, r.assignedPickupPerson = :person, " +
+            "r.isPickupPersonAssigned = true, r.scheduledTime = :scheduledTime, r.version = r.version + 1 " +
+            "WHERE r.id = :id AND r.status = :from")
+    int compareAndSetScheduled(@Param("id") Long id,
+                               @Param("from") RequestStatus from,
+                               @Param("to") RequestStatus to,
+                               @Param("person") PickupPerson person,
+                               @Param("scheduledTime") LocalDateTime scheduledTime);
+
+    // 🔹 Bulk admin actions: one query for all rows, with the eager associations joined in
+    @Query("SELECT r FROM Request r JOIN FETCH r.user LEFT JOIN FETCH r.assignedPickupPerson WHERE r.id IN :ids")
+    List<Request> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 🔹 Route planning: a day's scheduled pickups, for one agent or (personId null) for all of them
+    @Query("SELECT r FROM Request r JOIN FETCH r.user JOIN FETCH r.assignedPickupPerson p " +
+            "WHERE r.status = :status AND r.scheduledTime >= :from AND r.scheduledTime < :to " +
+            "AND (:personId IS NULL OR p.id = :personId) " +
+            "ORDER BY r.scheduledTime, r.id")
+    List<Request> findScheduledBetween(@Param("status") RequestStatus status,
+                                       @Param("personId") Long personId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    // 🔹 Batch dispatch: everything waiting in one status, oldest first, with the user joined in
+    @Query("SELECT r FROM Request r JOIN FETCH r.user WHERE r.status = :status ORDER BY r.createdAt, r.id")
+    List<Request> findAllWithUserByStatus(@Param("status") RequestStatus status);
+
+    // 🔹 Per-agent load in a time window: [pickupPersonId, count]
+    @Query("SELECT r.assignedPickupPerson.id, COUNT(r) FROM Request r " +
+            "WHERE r.status = :status AND r.scheduledTime >= :from AND r.scheduledTime < :to " +
+            "GROUP BY r.assignedPickupPerson.id")
+    List<Object[]> countByAgentBetween(@Param("status") RequestStatus status,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.status FROM Request r WHERE r.id = :id")
+    RequestStatus findStatusById(@Param("id") Long id);
 }
@@ -13,6 +13,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // ✅ ADD THESE METHODS
     long countByVerified(boolean verified);
 
+    // 🔹 Upload cleanup: profile pictures pointing at a blob
+    boolean existsByProfilePictureUrlStartingWith(String prefix);
+
     // Optional: Find users by role
     // List<User> findByRole(String role);
 }
\ No newline at end of file
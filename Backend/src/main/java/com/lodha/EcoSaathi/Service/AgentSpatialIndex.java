@@ -0,0 +1,158 @@
+package com.lodha.EcoSaathi.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * Uniform lat/lng grid over agent positions for k-nearest lookups.
+ *
+ * Each agent sits in exactly one cell; a position report only touches the
+ * index when the agent crosses into another cell. A query walks square
+ * rings of cells outwards from the target and stops as soon as the next
+ * ring cannot hold anything closer than the k-th best distance found so
+ * far. Beyond maxRings (sparse fleets, far-away targets) it falls back to
+ * scanning every indexed agent, so the answer is always exact.
+ * Coordinates do not wrap at the antimeridian.
+ */
+public final class AgentSpatialIndex {
+
+    public record Neighbor(long agentId, double distanceKm) { }
+
+    private static final double KM_PER_DEGREE = 111.19;
+    private static final long NO_CELL = Long.MIN_VALUE + 1;
+
+    private final double cellDegrees;
+    private final int maxRings;
+    private final ConcurrentHashMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final StripedLongLongMap cellByAgent = new StripedLongLongMap(64);
+
+    public AgentSpatialIndex(double cellDegrees, int maxRings) {
+        this.cellDegrees = cellDegrees;
+        this.maxRings = Math.max(1, maxRings);
+    }
+
+    public void move(long agentId, double latitude, double longitude) {
+        long cell = cellOf(latitude, longitude);
+        if (cellByAgent.get(agentId, NO_CELL) == cell) return;
+        // Cell changes are rare (every few minutes per agent), so one monitor is enough
+        synchronized (this) {
+            long old = cellByAgent.get(agentId, NO_CELL);
+            if (old == cell) return;
+            if (old != NO_CELL) leave(old, agentId);
+            cells.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(agentId);
+            cellByAgent.put(agentId, cell);
+        }
+    }
+
+    public synchronized void remove(long agentId) {
+        long old = cellByAgent.get(agentId, NO_CELL);
+        if (old == NO_CELL) return;
+        leave(old, agentId);
+        cellByAgent.remove(agentId);
+    }
+
+    public int size() {
+        return cellByAgent.size();
+    }
+
+    /** The k agents closest to the point, nearest first. positionOf gives {lat, lng} or null if unknown. */
+    public List<Neighbor> nearest(double latitude, double longitude, int k, LongFunction<double[]> positionOf) {
+        List<Neighbor> result = new ArrayList<>();
+        if (k <= 0 || cells.isEmpty()) return result;
+
+        // Max-heap on distance holding the best k so far
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(k + 1,
+                (a, b) -> Double.compare(b.distanceKm(), a.distanceKm()));
+        int latCell = latIndex(latitude);
+        int lngCell = lngIndex(longitude);
+        int total = size();
+        int seen = 0;
+
+        for (int ring = 0; ring <= maxRings; ring++) {
+            if (best.size() == k && minDistanceOutside(ring - 1, latitude) > best.peek().distanceKm()) break;
+            if (seen >= total) break;
+            if (ring == maxRings) {
+                scanAll(latitude, longitude, k, positionOf, best);
+                break;
+            }
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                boolean edgeRow = dLat == -ring || dLat == ring;
+                for (int dLng = -ring; dLng <= ring; dLng += edgeRow ? 1 : 2 * ring) {
+                    Set<Long> members = cells.get(key(latCell + dLat, lngCell + dLng));
+                    if (members == null) continue;
+                    for (Long agentId : members) {
+                        seen++;
+                        offer(agentId, latitude, longitude, k, positionOf, best);
+                    }
+                }
+            }
+        }
+
+        result.addAll(best);
+        result.sort((a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));
+        return result;
+    }
+
+    // ---------------------------------------------------------------
+    // HELPERS
+    // ---------------------------------------------------------------
+
+    private void scanAll(double latitude, double longitude, int k, LongFunction<double[]> positionOf,
+                         PriorityQueue<Neighbor> best) {
+        best.clear();
+        for (Set<Long> members : cells.values()) {
+            for (Long agentId : members) offer(agentId, latitude, longitude, k, positionOf, best);
+        }
+    }
+
+    private static void offer(long agentId, double latitude, double longitude, int k,
+                              LongFunction<double[]> positionOf, PriorityQueue<Neighbor> best) {
+        double[] position = positionOf.apply(agentId);
+        if (position == null) return;
+        double distance = RequestService.calculateHaversineDistance(latitude, longitude, position[0], position[1]);
+        if (best.size() < k) {
+            best.add(new Neighbor(agentId, distance));
+        } else if (distance < best.peek().distanceKm()) {
+            best.poll();
+            best.add(new Neighbor(agentId, distance));
+        }
+    }
+
+    // Lower bound on the distance from the point to any cell outside rings 0..ring
+    private double minDistanceOutside(int ring, double latitude) {
+        if (ring < 0) return 0;
+        double gapDegrees = ring * cellDegrees;
+        // Longitude degrees shrink towards the poles; use the narrowest latitude the ring reaches
+        double farLat = Math.min(90, Math.abs(latitude) + (ring + 1) * cellDegrees);
+        double lngKm = gapDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(farLat));
+        // Great circles cut slightly inside parallels, so keep a margin
+        return 0.95 * Math.min(gapDegrees * KM_PER_DEGREE, lngKm);
+    }
+
+    private void leave(long cell, long agentId) {
+        cells.computeIfPresent(cell, (k, members) -> {
+            members.remove(agentId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(latIndex(latitude), lngIndex(longitude));
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int lngIndex(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    private static long key(int latCell, int lngCell) {
+        return ((long) latCell << 32) | (lngCell & 0xffffffffL);
+    }
+}
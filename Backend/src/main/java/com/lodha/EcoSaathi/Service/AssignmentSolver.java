@@ -0,0 +1,237 @@
+package com.lodha.EcoSaathi.Service;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Assigns requests to agents, minimising total distance while respecting
+ * each agent's remaining capacity.
+ *
+ * Every free place in an agent's day becomes a "slot" whose cost is the
+ * distance to the request plus loadPenaltyKm for each job the agent already
+ * has at that point, so work is spread out instead of piling onto whoever
+ * happens to be central. Small inputs are solved exactly with the Hungarian
+ * algorithm over the request x slot matrix; above maxExactCells a lazy
+ * greedy takes over: each request considers its nearest few agents, the
+ * cheapest (request, agent) pair is taken first and costs are re-priced as
+ * agents fill up. Stateless and thread-safe.
+ */
+public final class AssignmentSolver {
+
+    public enum Method { HUNGARIAN, GREEDY }
+
+    // agentOf[r] is the agent index for request r, or -1 when it could not be placed
+    public record Solution(int[] agentOf, Method method) { }
+
+    private AssignmentSolver() {
+    }
+
+    public static Solution solve(double[] reqLat, double[] reqLng,
+                                 double[] agentLat, double[] agentLng,
+                                 int[] load, int[] capacity,
+                                 double loadPenaltyKm, long maxExactCells, int candidates) {
+        int requests = reqLat.length;
+        int slots = 0;
+        for (int c : capacity) slots += Math.max(0, c);
+        if (requests == 0 || slots == 0) {
+            int[] none = new int[requests];
+            Arrays.fill(none, -1);
+            return new Solution(none, Method.HUNGARIAN);
+        }
+        if ((long) requests * slots <= maxExactCells) {
+            return new Solution(hungarian(reqLat, reqLng, agentLat, agentLng, load, capacity, slots, loadPenaltyKm),
+                    Method.HUNGARIAN);
+        }
+        return new Solution(greedy(reqLat, reqLng, agentLat, agentLng, load, capacity, loadPenaltyKm, candidates),
+                Method.GREEDY);
+    }
+
+    // ---------------------------------------------------------------
+    // EXACT: Hungarian over request x slot
+    // ---------------------------------------------------------------
+
+    private static int[] hungarian(double[] reqLat, double[] reqLng, double[] agentLat, double[] agentLng,
+                                   int[] load, int[] capacity, int slots, double loadPenaltyKm) {
+        int requests = reqLat.length;
+        int[] slotAgent = new int[slots];
+        double[] slotPenalty = new double[slots];
+        for (int a = 0, s = 0; a < capacity.length; a++) {
+            for (int k = 0; k < capacity[a]; k++, s++) {
+                slotAgent[s] = a;
+                slotPenalty[s] = loadPenaltyKm * (load[a] + k);
+            }
+        }
+
+        // The algorithm needs rows <= columns; with more requests than slots the slots become the rows
+        boolean requestRows = requests <= slots;
+        int rows = requestRows ? requests : slots;
+        int cols = requestRows ? slots : requests;
+        double[] cost = new double[rows * cols];
+        for (int r = 0; r < requests; r++) {
+            for (int s = 0; s < slots; s++) {
+                int a = slotAgent[s];
+                double c = RequestService.calculateHaversineDistance(reqLat[r], reqLng[r], agentLat[a], agentLng[a])
+                        + slotPenalty[s];
+                cost[requestRows ? r * cols + s : s * cols + r] = c;
+            }
+        }
+
+        int[] colOfRow = minCostAssignment(cost, rows, cols);
+        int[] agentOf = new int[requests];
+        Arrays.fill(agentOf, -1);
+        for (int row = 0; row < rows; row++) {
+            int col = colOfRow[row];
+            if (requestRows) {
+                agentOf[row] = slotAgent[col];
+            } else {
+                agentOf[col] = slotAgent[row];
+            }
+        }
+        return agentOf;
+    }
+
+    /** Hungarian algorithm (potentials, O(rows^2 * cols)); every row gets a distinct column. */
+    static int[] minCostAssignment(double[] cost, int rows, int cols) {
+        double[] u = new double[rows + 1];
+        double[] v = new double[cols + 1];
+        int[] p = new int[cols + 1];   // p[j]: row matched to column j (1-based, 0 = none)
+        int[] way = new int[cols + 1];
+        double[] minv = new double[cols + 1];
+        boolean[] used = new boolean[cols + 1];
+
+        for (int i = 1; i <= rows; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                int base = (i0 - 1) * cols - 1;
+                for (int j = 1; j <= cols; j++) {
+                    if (used[j]) continue;
+                    double cur = cost[base + j] - u[i0] - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= cols; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] colOfRow = new int[rows];
+        for (int j = 1; j <= cols; j++) {
+            if (p[j] != 0) colOfRow[p[j] - 1] = j - 1;
+        }
+        return colOfRow;
+    }
+
+    // ---------------------------------------------------------------
+    // LARGE INPUTS: lazy greedy over each request's nearest agents
+    // ---------------------------------------------------------------
+
+    private static int[] greedy(double[] reqLat, double[] reqLng, double[] agentLat, double[] agentLng,
+                                int[] load, int[] capacity, double loadPenaltyKm, int candidates) {
+        int requests = reqLat.length;
+        int agents = agentLat.length;
+        int k = Math.max(1, Math.min(candidates, agents));
+        int[] currentLoad = load.clone();
+        int[] left = capacity.clone();
+        int[] agentOf = new int[requests];
+        Arrays.fill(agentOf, -1);
+
+        // Entry: {cost, request, agent, load the cost was priced at}
+        PriorityQueue<double[]> queue = new PriorityQueue<>(requests * k + 1, (x, y) -> Double.compare(x[0], y[0]));
+        double[] dist = new double[requests * k];
+        int[] near = new int[requests * k];
+        for (int r = 0; r < requests; r++) {
+            nearestAgents(reqLat[r], reqLng[r], agentLat, agentLng, left, k, near, dist, r * k);
+            for (int i = 0; i < k; i++) {
+                int a = near[r * k + i];
+                if (a < 0) continue;
+                queue.add(new double[]{dist[r * k + i] + loadPenaltyKm * currentLoad[a], r, a, currentLoad[a]});
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            double[] e = queue.poll();
+            int r = (int) e[1], a = (int) e[2];
+            if (agentOf[r] >= 0 || left[a] <= 0) continue;
+            if ((int) e[3] != currentLoad[a]) {
+                // Agent took more work since this was priced: re-price and put it back
+                double distance = e[0] - loadPenaltyKm * e[3];
+                queue.add(new double[]{distance + loadPenaltyKm * currentLoad[a], r, a, currentLoad[a]});
+                continue;
+            }
+            agentOf[r] = a;
+            currentLoad[a]++;
+            left[a]--;
+        }
+
+        // Requests whose nearest agents all filled up: cheapest agent that still has room
+        for (int r = 0; r < requests; r++) {
+            if (agentOf[r] >= 0) continue;
+            int best = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int a = 0; a < agents; a++) {
+                if (left[a] <= 0) continue;
+                double c = RequestService.calculateHaversineDistance(reqLat[r], reqLng[r], agentLat[a], agentLng[a])
+                        + loadPenaltyKm * currentLoad[a];
+                if (c < bestCost) {
+                    bestCost = c;
+                    best = a;
+                }
+            }
+            if (best < 0) break; // fleet is full
+            agentOf[r] = best;
+            currentLoad[best]++;
+            left[best]--;
+        }
+        return agentOf;
+    }
+
+    // k nearest agents with capacity, written to near/dist starting at offset (-1 when fewer exist)
+    private static void nearestAgents(double lat, double lng, double[] agentLat, double[] agentLng, int[] left,
+                                      int k, int[] near, double[] dist, int offset) {
+        int found = 0;
+        Arrays.fill(near, offset, offset + k, -1);
+        for (int a = 0; a < agentLat.length; a++) {
+            if (left[a] <= 0) continue;
+            double d = RequestService.calculateHaversineDistance(lat, lng, agentLat[a], agentLng[a]);
+            if (found < k) {
+                found++;
+            } else if (d >= dist[offset + k - 1]) {
+                continue;
+            }
+            // Insertion into the sorted top-k
+            int i = found - 1;
+            while (i > 0 && dist[offset + i - 1] > d) {
+                dist[offset + i] = dist[offset + i - 1];
+                near[offset + i] = near[offset + i - 1];
+                i--;
+            }
+            dist[offset + i] = d;
+            near[offset + i] = a;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Dto.BulkActionResult;
+import com.lodha.EcoSaathi.Dto.DispatchPlan;
+import com.lodha.EcoSaathi.Entity.PickupPerson;
+import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import com.lodha.EcoSaathi.Repository.PickupPersonRepository;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns every APPROVED request to a pickup agent in one go.
+ *
+ * Agents are placed at their last known position; their capacity for the
+ * day is app.dispatch.default-capacity (or the caller's value) minus what
+ * is already SCHEDULED for them that day. AssignmentSolver picks the
+ * agents; the result is then applied per agent through
+ * RequestBulkService.bulkSchedule, i.e. the normal transition checks,
+ * counters, emails and notifications.
+ *
+ * Only stored coordinates are used: nothing is geocoded on the calling
+ * thread. Requests without them are reported as unassigned until
+ * RequestService.backfillCoordinates has resolved their address.
+ */
+@Service
+public class DispatchService {
+
+    private final RequestRepository requestRepository;
+    private final PickupPersonRepository pickupPersonRepository;
+    private final RequestBulkService requestBulkService;
+    private final LiveLocationStore liveLocationStore;
+
+    private final int defaultCapacity;
+    private final double loadPenaltyKm;
+    private final long maxExactCells;
+    private final int greedyCandidates;
+
+    public DispatchService(RequestRepository requestRepository,
+                           PickupPersonRepository pickupPersonRepository,
+                           RequestBulkService requestBulkService,
+                           LiveLocationStore liveLocationStore,
+                           @Value("${app.dispatch.default-capacity:8}") int defaultCapacity,
+                           @Value("${app.dispatch.load-penalty-km:1.0}") double loadPenaltyKm,
+                           @Value("${app.dispatch.max-exact-cells:250000}") long maxExactCells,
+                           @Value("${app.dispatch.greedy-candidates:16}") int greedyCandidates) {
+        this.requestRepository = requestRepository;
+        this.pickupPersonRepository = pickupPersonRepository;
+        this.requestBulkService = requestBulkService;
+        this.liveLocationStore = liveLocationStore;
+        this.defaultCapacity = defaultCapacity;
+        this.loadPenaltyKm = loadPenaltyKm;
+        this.maxExactCells = maxExactCells;
+        this.greedyCandidates = greedyCandidates;
+    }
+
+    public DispatchPlan dispatch(LocalDateTime scheduledTime, Integer capacityPerAgent, boolean dryRun) {
+        if (scheduledTime == null) {
+            throw new RuntimeException("Scheduled time is required.");
+        }
+        int capacity = capacityPerAgent != null ? capacityPerAgent : defaultCapacity;
+        if (capacity < 1) {
+            throw new RuntimeException("Capacity per agent must be at least 1.");
+        }
+
+        DispatchPlan plan = new DispatchPlan();
+        plan.setScheduledTime(scheduledTime);
+
+        // Requests with stored coordinates; the rest wait for the background backfill
+        List<Request> located = new ArrayList<>();
+        for (Request r : requestRepository.findAllWithUserByStatus(RequestStatus.APPROVED)) {
+            if (r.getLatitude() == null || r.getLongitude() == null) {
+                plan.getUnassignedRequestIds().add(r.getId());
+            } else {
+                located.add(r);
+            }
+        }
+
+        // Agents with a known position and room left that day
+        Map<Long, Integer> dayLoad = new HashMap<>();
+        for (Object[] row : requestRepository.countByAgentBetween(RequestStatus.SCHEDULED,
+                scheduledTime.toLocalDate().atStartOfDay(), scheduledTime.toLocalDate().plusDays(1).atStartOfDay())) {
+            dayLoad.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        List<PickupPerson> agents = new ArrayList<>();
+        List<LiveLocationStore.Location> agentPositions = new ArrayList<>();
+        for (PickupPerson person : pickupPersonRepository.findAll()) {
+            LiveLocationStore.Location position = liveLocationStore.locate(person);
+            if (position == null || dayLoad.getOrDefault(person.getId(), 0) >= capacity) continue;
+            agents.add(person);
+            agentPositions.add(position);
+        }
+
+        double[] reqLat = new double[located.size()], reqLng = new double[located.size()];
+        for (int i = 0; i < reqLat.length; i++) {
+            reqLat[i] = located.get(i).getLatitude();
+            reqLng[i] = located.get(i).getLongitude();
+        }
+        double[] agentLat = new double[agents.size()], agentLng = new double[agents.size()];
+        int[] load = new int[agents.size()], room = new int[agents.size()];
+        for (int a = 0; a < agentLat.length; a++) {
+            agentLat[a] = agentPositions.get(a).latitude();
+            agentLng[a] = agentPositions.get(a).longitude();
+            load[a] = dayLoad.getOrDefault(agents.get(a).getId(), 0);
+            room[a] = capacity - load[a];
+        }
+
+        long start = System.nanoTime();
+        AssignmentSolver.Solution solution = AssignmentSolver.solve(reqLat, reqLng, agentLat, agentLng,
+                load, room, loadPenaltyKm, maxExactCells, greedyCandidates);
+        plan.setSolveMillis((System.nanoTime() - start) / 1_000_000);
+        plan.setMethod(solution.method().name());
+
+        Map<Long, List<Long>> requestIdsByAgent = new LinkedHashMap<>();
+        double totalKm = 0;
+        for (int r = 0; r < located.size(); r++) {
+            int a = solution.agentOf()[r];
+            Long requestId = located.get(r).getId();
+            if (a < 0) {
+                plan.getUnassignedRequestIds().add(requestId);
+                continue;
+            }
+            double km = RequestService.calculateHaversineDistance(reqLat[r], reqLng[r], agentLat[a], agentLng[a]);
+            totalKm += km;
+            DispatchPlan.Assignment assignment = new DispatchPlan.Assignment();
+            assignment.setRequestId(requestId);
+            assignment.setPickupPersonId(agents.get(a).getId());
+            assignment.setDistanceKm(Math.round(km * 100) / 100.0);
+            plan.getAssignments().add(assignment);
+            requestIdsByAgent.computeIfAbsent(agents.get(a).getId(), k -> new ArrayList<>()).add(requestId);
+        }
+        plan.setTotalKm(Math.round(totalKm * 100) / 100.0);
+
+        if (!dryRun) {
+            List<BulkActionResult> results = new ArrayList<>();
+            requestIdsByAgent.forEach((agentId, ids) -> {
+                for (int i = 0; i < ids.size(); i += RequestBulkService.MAX_BULK_SIZE) {
+                    List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + RequestBulkService.MAX_BULK_SIZE));
+                    results.addAll(requestBulkService.bulkSchedule(new ArrayList<>(chunk), scheduledTime, agentId));
+                }
+            });
+            plan.setResults(results);
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,109 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.OutboxMessage;
+import com.lodha.EcoSaathi.Entity.OutboxStatus;
+import com.lodha.EcoSaathi.Repository.OutboxMessageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Folds pending coalescible emails for the same recipient into one digest
+ * before a batch goes out. The oldest message carries the digest; the rest
+ * are marked MERGED. Urgent mail (OTPs, credentials) is never coalescible
+ * and passes through untouched.
+ *
+ * The digest and the MERGED parts are committed together before anything
+ * is sent: if the send fails or the process dies, the retry delivers the
+ * digest instead of the carrier's original body.
+ */
+@Component
+public class EmailCoalescer {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final EmailTemplateRegistry templates;
+
+    @Value("${app.outbox.digest-max-items:20}")
+    private int digestMaxItems;
+
+    public EmailCoalescer(OutboxMessageRepository outboxMessageRepository, EmailTemplateRegistry templates) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.templates = templates;
+    }
+
+    /** Returns the batch to actually send: digests replace their parts. */
+    @Transactional
+    public List<OutboxMessage> coalesce(List<OutboxMessage> due) {
+        Map<String, List<OutboxMessage>> byRecipient = new LinkedHashMap<>();
+        for (OutboxMessage m : due) {
+            if (m.isCoalescible() && m.getAttempts() == 0) {
+                byRecipient.computeIfAbsent(m.getRecipient(), k -> new ArrayList<>()).add(m);
+            }
+        }
+        if (byRecipient.isEmpty()) return due;
+
+        Set<Long> dropped = new HashSet<>();
+        for (Map.Entry<String, List<OutboxMessage>> entry : byRecipient.entrySet()) {
+            // Pull in later updates still waiting in their window, they go out with this digest
+            List<OutboxMessage> parts = outboxMessageRepository.findCoalescible(
+                    entry.getKey(), OutboxStatus.PENDING, PageRequest.of(0, digestMaxItems));
+            OutboxMessage carrier = entry.getValue().get(0);
+            if (parts.stream().noneMatch(p -> p.getId().equals(carrier.getId()))) {
+                parts.add(0, carrier);
+            }
+            if (parts.size() < 2) continue;
+
+            List<OutboxMessage> merged = new ArrayList<>();
+            StringBuilder items = new StringBuilder();
+            for (OutboxMessage part : parts) {
+                items.append("<div style='background: white; padding: 15px; border-radius: 8px; margin: 15px 0;'>")
+                        .append(extractBody(part.getBody()))
+                        .append("</div>");
+                if (!part.getId().equals(carrier.getId())) merged.add(part);
+            }
+
+            carrier.setSubject("📬 EcoSaathi - " + parts.size() + " updates on your account");
+            carrier.setBody(templates.get("digest").bind()
+                    .set("count", parts.size())
+                    .set("items", items.toString())
+                    .render());
+            carrier.setCoalescible(false);
+
+            LocalDateTime now = LocalDateTime.now();
+            for (OutboxMessage part : merged) {
+                part.setStatus(OutboxStatus.MERGED);
+                part.setMergedIntoId(carrier.getId());
+                part.setSentAt(now);
+                dropped.add(part.getId());
+            }
+            outboxMessageRepository.saveAll(merged);
+            outboxMessageRepository.save(carrier);
+        }
+
+        if (dropped.isEmpty()) return due;
+        List<OutboxMessage> toSend = new ArrayList<>(due.size());
+        for (OutboxMessage m : due) {
+            if (!dropped.contains(m.getId())) toSend.add(m);
+        }
+        return toSend;
+    }
+
+    // Inner markup of a full HTML document, so parts can be stacked in one body
+    static String extractBody(String html) {
+        if (html == null) return "";
+        int bodyTag = html.indexOf("<body");
+        int start = bodyTag < 0 ? -1 : html.indexOf('>', bodyTag);
+        int end = html.lastIndexOf("</body>");
+        if (start < 0 || end < start) return html;
+        return html.substring(start + 1, end);
+    }
+}
@@ -0,0 +1,135 @@
+package com.lodha.EcoSaathi.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML email template compiled once into literal segments and slots.
+ * {{name}} inserts the value HTML-escaped, {{{name}}} inserts it as-is
+ * (only for markup we build ourselves).
+ *
+ * Rendering walks the precompiled parts and appends into a per-thread
+ * StringBuilder that is reused across calls, so a render allocates only
+ * the Binding and the final String.
+ */
+public final class EmailTemplate {
+
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8 * 1024));
+
+    private final String name;
+    private final char[][] literals;     // literals[i] comes before slot i; the last one closes the template
+    private final int[] slotIndex;       // position in the binding for each slot occurrence
+    private final boolean[] slotRaw;
+    private final Map<String, Integer> slotNames;
+    private final int literalLength;
+
+    private EmailTemplate(String name, List<String> literals, List<Integer> slotIndex,
+                          List<Boolean> slotRaw, Map<String, Integer> slotNames) {
+        this.name = name;
+        this.literals = new char[literals.size()][];
+        int length = 0;
+        for (int i = 0; i < literals.size(); i++) {
+            this.literals[i] = literals.get(i).toCharArray();
+            length += this.literals[i].length;
+        }
+        this.literalLength = length;
+        this.slotIndex = slotIndex.stream().mapToInt(Integer::intValue).toArray();
+        this.slotRaw = new boolean[slotRaw.size()];
+        for (int i = 0; i < slotRaw.size(); i++) this.slotRaw[i] = slotRaw.get(i);
+        this.slotNames = Map.copyOf(slotNames);
+    }
+
+    public static EmailTemplate compile(String name, String source) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slotIndex = new ArrayList<>();
+        List<Boolean> slotRaw = new ArrayList<>();
+        Map<String, Integer> slotNames = new HashMap<>();
+
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) break;
+            boolean raw = source.startsWith("{{{", open);
+            String close = raw ? "}}}" : "}}";
+            int end = source.indexOf(close, open);
+            if (end < 0) {
+                throw new RuntimeException("Unclosed slot in email template '" + name + "' at offset " + open);
+            }
+            String slot = source.substring(open + (raw ? 3 : 2), end).trim();
+            if (slot.isEmpty()) {
+                throw new RuntimeException("Empty slot in email template '" + name + "' at offset " + open);
+            }
+            literals.add(source.substring(pos, open));
+            slotIndex.add(slotNames.computeIfAbsent(slot, k -> slotNames.size()));
+            slotRaw.add(raw);
+            pos = end + close.length();
+        }
+        literals.add(source.substring(pos));
+        return new EmailTemplate(name, literals, slotIndex, slotRaw, slotNames);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Binding bind() {
+        return new Binding();
+    }
+
+    /** Slot values for one render. */
+    public final class Binding {
+        private final String[] values = new String[slotNames.size()];
+
+        public Binding set(String slot, Object value) {
+            Integer index = slotNames.get(slot);
+            if (index == null) {
+                throw new RuntimeException("Email template '" + name + "' has no slot '" + slot + "'");
+            }
+            values[index] = value == null ? "" : value.toString();
+            return this;
+        }
+
+        public String render() {
+            StringBuilder out = BUFFER.get();
+            out.setLength(0);
+            out.ensureCapacity(literalLength + 256);
+            for (int i = 0; i < slotIndex.length; i++) {
+                out.append(literals[i]);
+                String value = values[slotIndex[i]];
+                if (value == null) continue;
+                if (slotRaw[i]) {
+                    out.append(value);
+                } else {
+                    appendEscaped(out, value);
+                }
+            }
+            out.append(literals[literals.length - 1]);
+            String html = out.toString();
+            // Don't let one huge render pin a big buffer on the thread forever
+            if (out.capacity() > MAX_RETAINED_BUFFER) BUFFER.remove();
+            return html;
+        }
+    }
+
+    static void appendEscaped(StringBuilder out, String value) {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String entity = switch (value.charAt(i)) {
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '&' -> "&amp;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                out.append(value, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(value, start, value.length());
+    }
+}
@@ -0,0 +1,52 @@
+package com.lodha.EcoSaathi.Service;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads every classpath:templates/email/*.html once at startup and keeps
+ * the compiled form. A broken template fails the boot, not a send.
+ */
+@Component
+public class EmailTemplateRegistry {
+
+    private static final String LOCATION = "classpath:templates/email/*.html";
+
+    private final Map<String, EmailTemplate> templates;
+
+    public EmailTemplateRegistry() {
+        this.templates = loadAll();
+    }
+
+    private static Map<String, EmailTemplate> loadAll() {
+        Map<String, EmailTemplate> loaded = new HashMap<>();
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+            for (Resource resource : resources) {
+                String fileName = resource.getFilename();
+                if (fileName == null) continue;
+                String name = fileName.substring(0, fileName.length() - ".html".length());
+                String source = resource.getContentAsString(StandardCharsets.UTF_8);
+                loaded.put(name, EmailTemplate.compile(name, source));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not load email templates from " + LOCATION, e);
+        }
+        System.out.println("📧 Loaded " + loaded.size() + " email templates.");
+        return Map.copyOf(loaded);
+    }
+
+    public EmailTemplate get(String name) {
+        EmailTemplate template = templates.get(name);
+        if (template == null) {
+            throw new RuntimeException("Email template not found: " + name);
+        }
+        return template;
+    }
+}
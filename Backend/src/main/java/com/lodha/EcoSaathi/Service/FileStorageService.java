@@ -0,0 +1,287 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Config.FileStorageProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed upload storage shared by request photos and profile pictures.
+ *
+ * Each upload is hashed (SHA-256) while it streams to a temp file, then moved to
+ * {@code <uploadDir>/ab/cd/<sha256>}. The blob is named by the hash alone, so
+ * identical content is stored once whatever the file was called, and the two-level
+ * fan-out keeps every directory small. The returned key is what goes after
+ * {@code /images/}: the blob path plus the upload's extension, which is only
+ * metadata (it picks the Content-Type when served). Blobs written before this
+ * layout keep their extension on disk and are still found by {@link #resolve}.
+ */
+@Service
+public class FileStorageService {
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "png", "gif", "webp");
+
+    // ab/cd/<sha256> with an optional extension
+    private static final Pattern CONTENT_KEY = Pattern.compile("([0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64})(\\.[a-z0-9]{1,5})?");
+
+    private final Path root;
+    private final Path tmpDir;
+    private final ThreadPoolExecutor ioPool;
+    // Blob -> number of uploads holding it until their transaction completes
+    private final ConcurrentHashMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+    public FileStorageService(FileStorageProperties fileStorageProperties,
+                              @Value("${app.storage.io-threads:4}") int ioThreads) {
+        this.root = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+        // Temp files live under the upload dir so the final move is a same-filesystem rename
+        this.tmpDir = root.resolve(".tmp");
+        try {
+            Files.createDirectories(tmpDir);
+        } catch (Exception ex) {
+            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
+        }
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.ioPool = new ThreadPoolExecutor(ioThreads, ioThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(ioThreads * 16),
+                r -> {
+                    Thread t = new Thread(r, "upload-io-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                // Saturated: the uploading request thread writes its own files
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Stores one upload and returns its key (e.g. {@code 3f/a9/3fa9...e1.jpg}).
+     */
+    public String store(MultipartFile file) {
+        List<String> held = new ArrayList<>(1);
+        try {
+            String key = store(file, null, held);
+            afterCompletion(rolledBack -> release(held));
+            return key;
+        } catch (RuntimeException ex) {
+            release(held);
+            throw ex;
+        }
+    }
+
+    // created (if not null) collects the keys whose blob this call wrote itself;
+    // held collects the blobs this call holds (see hold) and must be released by the caller
+    private String store(MultipartFile file, Set<String> created, List<String> held) {
+        Path tmp = null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String blob = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+            String key = blob + extensionOf(file.getOriginalFilename());
+            Path target = root.resolve(blob);
+            hold(blob);
+            held.add(blob);
+
+            if (Files.exists(target)) {
+                // Same bytes already stored: keep the existing blob
+                Files.deleteIfExists(tmp);
+                return key;
+            }
+
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                if (created != null) created.add(key);
+            } catch (FileAlreadyExistsException raced) {
+                // A concurrent upload of the same content won the rename
+                Files.deleteIfExists(tmp);
+            }
+            return key;
+
+        } catch (Exception ex) {
+            System.err.println("File Storage Error: " + ex.getMessage());
+            try {
+                if (tmp != null) Files.deleteIfExists(tmp);
+            } catch (Exception ignored) { }
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
+        }
+    }
+
+    /**
+     * Stores several uploads in parallel on the I/O pool. Keys come back in input order;
+     * empty parts are skipped.
+     *
+     * The blobs this batch wrote itself are deleted again if any upload fails (once every
+     * worker has finished) or if the caller's transaction rolls back, except those
+     * {@code referenced} reports as used by a row and those another upload still holds.
+     */
+    public List<String> storeAll(List<MultipartFile> files, Predicate<String> referenced) {
+        Set<String> created = ConcurrentHashMap.newKeySet();
+        List<String> held = Collections.synchronizedList(new ArrayList<>());
+        List<Future<String>> pending = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) continue;
+            pending.add(ioPool.submit(() -> store(file, created, held)));
+        }
+
+        List<String> keys = new ArrayList<>(pending.size());
+        RuntimeException failure = null;
+        for (Future<String> future : pending) {
+            try {
+                // Keep waiting after a failure so no worker is still writing during the cleanup
+                String key = future.get();
+                if (failure == null) keys.add(key);
+            } catch (ExecutionException ex) {
+                if (failure == null) {
+                    failure = (ex.getCause() instanceof RuntimeException re) ? re : new RuntimeException(ex.getCause());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                failure = new RuntimeException("Interrupted while storing files.", ex);
+                break;
+            }
+        }
+        if (failure != null) {
+            release(held);
+            discard(created, referenced);
+            throw failure;
+        }
+        afterCompletion(rolledBack -> {
+            release(held);
+            // Off the request thread, where the transaction's resources are no longer bound
+            if (rolledBack) ioPool.execute(() -> discard(created, referenced));
+        });
+        return keys;
+    }
+
+    /**
+     * Resolves a key (or a legacy flat file name) to a path, refusing anything outside the upload dir.
+     */
+    public Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new RuntimeException("Invalid file path: " + key);
+        }
+        Matcher content = CONTENT_KEY.matcher(key);
+        if (content.matches() && content.group(2) != null) {
+            // Blobs are named by hash alone; older ones still carry the extension on disk
+            Path blob = root.resolve(content.group(1));
+            if (Files.exists(blob) || !Files.exists(path)) return blob;
+        }
+        return path;
+    }
+
+    /**
+     * The part of a content-addressed key that names the blob ({@code ab/cd/<sha256>}),
+     * shared by every key stored from the same bytes; other keys come back unchanged.
+     */
+    public static String blobKey(String key) {
+        Matcher content = CONTENT_KEY.matcher(key);
+        return content.matches() ? content.group(1) : key;
+    }
+
+    private void discard(Set<String> created, Predicate<String> referenced) {
+        for (String key : created) {
+            String blob = blobKey(key);
+            try {
+                if (referenced.test(key)) continue;
+                // Under the blob's entry, so an upload of the same bytes cannot pick it up meanwhile
+                inFlight.compute(blob, (k, holds) -> {
+                    if (holds == null) {
+                        try {
+                            Files.deleteIfExists(root.resolve(blob));
+                        } catch (Exception ex) {
+                            System.err.println("❌ Could not remove orphaned upload " + key + ": " + ex.getMessage());
+                        }
+                    }
+                    return holds;
+                });
+            } catch (Exception ex) {
+                System.err.println("❌ Could not remove orphaned upload " + key + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    // An upload holds its blob from hashing until its caller's transaction completes, so a
+    // concurrent cleanup never deletes a blob whose row is not committed yet
+    private void hold(String blob) {
+        inFlight.merge(blob, 1, Integer::sum);
+    }
+
+    private void release(List<String> held) {
+        synchronized (held) {
+            for (String blob : held) {
+                inFlight.computeIfPresent(blob, (k, holds) -> holds > 1 ? holds - 1 : null);
+            }
+            held.clear();
+        }
+    }
+
+    // Runs once the surrounding transaction is done (true if rolled back), or right away without one
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_ROLLED_BACK);
+                }
+            });
+        } else {
+            action.accept(false);
+        }
+    }
+
+    // Only image extensions survive; anything else is stored as .jpg so it can never be served as HTML/SVG
+    private String extensionOf(String originalFileName) {
+        if (originalFileName == null) return ".jpg";
+        int dotIndex = originalFileName.lastIndexOf('.');
+        if (dotIndex <= 0 || dotIndex == originalFileName.length() - 1) return ".jpg";
+
+        String ext = originalFileName.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
+        if ("jpeg".equals(ext)) ext = "jpg";
+        return IMAGE_EXTENSIONS.contains(ext) ? "." + ext : ".jpg";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ioPool.shutdown();
+    }
+}
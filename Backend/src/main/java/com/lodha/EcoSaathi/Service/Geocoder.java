@@ -0,0 +1,13 @@
+package com.lodha.EcoSaathi.Service;
+
+/**
+ * Resolves a free-form address to coordinates.
+ */
+public interface Geocoder {
+
+    /**
+     * @return {lat, lng}, or null if the address could not be found
+     * @throws RuntimeException if the lookup itself failed (network, bad response)
+     */
+    double[] geocode(String address);
+}
@@ -0,0 +1,176 @@
+package com.lodha.EcoSaathi.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Geocoding with a bounded LRU cache in front of the {@link Geocoder}.
+ *
+ * Keys are normalized addresses. Misses and lookup failures are cached too
+ * (for app.geocode.negative-ttl-ms) so a bad address does not hit the
+ * external API on every call. The cache is written to app.geocode.cache-file
+ * periodically and on shutdown, and read back on startup.
+ */
+@Service
+public class GeocodingService {
+
+    private final Geocoder geocoder;
+    private final int maxEntries;
+    private final long negativeTtlMs;
+    private final Path cacheFile;
+
+    private final LinkedHashMap<String, CachedLocation> cache;
+    private volatile boolean dirty = false;
+
+    record CachedLocation(boolean found, double lat, double lng, long resolvedAt) {}
+
+    public GeocodingService(Geocoder geocoder,
+                            @Value("${app.geocode.cache-size:10000}") int maxEntries,
+                            @Value("${app.geocode.negative-ttl-ms:3600000}") long negativeTtlMs,
+                            @Value("${app.geocode.cache-file:./geocode-cache.tsv}") String cacheFile) {
+        this.geocoder = geocoder;
+        this.maxEntries = maxEntries;
+        this.negativeTtlMs = negativeTtlMs;
+        this.cacheFile = Paths.get(cacheFile).toAbsolutePath().normalize();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedLocation> eldest) {
+                return size() > GeocodingService.this.maxEntries;
+            }
+        };
+        load();
+    }
+
+    /**
+     * @return {lat, lng}, or null if the address is blank or could not be resolved
+     */
+    public double[] resolve(String address) {
+        String key = normalize(address);
+        if (key.isEmpty()) return null;
+
+        CachedLocation cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        long now = System.currentTimeMillis();
+        if (cached != null) {
+            if (cached.found()) return new double[]{cached.lat(), cached.lng()};
+            if (now - cached.resolvedAt() < negativeTtlMs) return null;
+        }
+
+        CachedLocation fresh;
+        try {
+            double[] coords = geocoder.geocode(address.trim());
+            fresh = coords != null
+                    ? new CachedLocation(true, coords[0], coords[1], now)
+                    : new CachedLocation(false, 0.0, 0.0, now);
+        } catch (Exception e) {
+            System.err.println("Geocoding failed for address: " + address + " | Error: " + e.getMessage());
+            fresh = new CachedLocation(false, 0.0, 0.0, now);
+        }
+
+        synchronized (cache) {
+            cache.put(key, fresh);
+        }
+        dirty = true;
+        return fresh.found() ? new double[]{fresh.lat(), fresh.lng()} : null;
+    }
+
+    /**
+     * Cache-only lookup that never calls the geocoder, for callers that must not block
+     * (e.g. inside a transaction).
+     * @return {lat, lng} if the address is already cached as found, otherwise null
+     */
+    public double[] peek(String address) {
+        String key = normalize(address);
+        if (key.isEmpty()) return null;
+        CachedLocation cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        return cached != null && cached.found() ? new double[]{cached.lat(), cached.lng()} : null;
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    static String normalize(String address) {
+        if (address == null) return "";
+        return address.trim()
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .replaceAll("\\s*,\\s*", ", ")
+                .replaceAll("[\\s,.]+$", "");
+    }
+
+    // ---------------------------------------------------------------
+    // PERSISTENCE
+    // ---------------------------------------------------------------
+
+    @Scheduled(fixedDelayString = "${app.geocode.flush-interval-ms:60000}")
+    public void flush() {
+        if (!dirty) return;
+        dirty = false;
+
+        Map<String, CachedLocation> snapshot;
+        synchronized (cache) {
+            snapshot = new LinkedHashMap<>(cache);
+        }
+
+        try {
+            if (cacheFile.getParent() != null) Files.createDirectories(cacheFile.getParent());
+            Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                // Eldest first, so reloading in file order restores the LRU order
+                for (Map.Entry<String, CachedLocation> e : snapshot.entrySet()) {
+                    CachedLocation c = e.getValue();
+                    out.write(e.getKey() + "\t" + (c.found() ? 1 : 0) + "\t" + c.lat() + "\t" + c.lng() + "\t" + c.resolvedAt());
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            dirty = true;
+            System.err.println("GeocodingService: Could not write cache file " + cacheFile + " | Error: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void load() {
+        if (!Files.exists(cacheFile)) return;
+        try (BufferedReader in = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split("\t");
+                if (parts.length != 5) continue;
+                cache.put(parts[0], new CachedLocation(
+                        "1".equals(parts[1]),
+                        Double.parseDouble(parts[2]),
+                        Double.parseDouble(parts[3]),
+                        Long.parseLong(parts[4])));
+            }
+        } catch (Exception e) {
+            System.err.println("GeocodingService: Ignoring unreadable cache file " + cacheFile + " | Error: " + e.getMessage());
+        }
+    }
+}
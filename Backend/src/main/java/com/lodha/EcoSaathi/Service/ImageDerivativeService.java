@@ -0,0 +1,223 @@
+package com.lodha.EcoSaathi.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds downscaled JPEG variants of stored images on a bounded background pool.
+ *
+ * A variant of {@code ab/cd/<hash>.png} is written next to it as
+ * {@code ab/cd/<hash>_thumb.jpg}. Until it exists, callers serve the original.
+ * When the queue is full new work is dropped (the original keeps being served),
+ * so uploads never wait on image processing.
+ *
+ * Dimensions are read from the header before decoding. Sources above
+ * app.images.max-decode-pixels are decoded subsampled (every n-th pixel),
+ * so a huge upload costs at most that many pixels of heap per worker;
+ * anything above MAX_SOURCE_PIXELS is not decoded at all.
+ */
+@Service
+public class ImageDerivativeService {
+
+    public enum Variant {
+        THUMB(200, 0.70f),
+        MEDIUM(800, 0.80f);
+
+        final int maxSide;
+        final float quality;
+
+        Variant(int maxSide, float quality) {
+            this.maxSide = maxSide;
+            this.quality = quality;
+        }
+
+        public String suffix() {
+            return "_" + name().toLowerCase(Locale.ROOT) + ".jpg";
+        }
+
+        public static Variant fromParam(String value) {
+            if (value == null || value.isBlank()) return null;
+            try {
+                return Variant.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    // Decompression bombs: not even a subsampled pass is worth it
+    static final long MAX_SOURCE_PIXELS = 400_000_000L;
+
+    private final FileStorageService fileStorageService;
+    private final ThreadPoolExecutor workers;
+    private final long maxDecodePixels;
+
+    public ImageDerivativeService(FileStorageService fileStorageService,
+                                  @Value("${app.images.derivative-threads:2}") int threads,
+                                  @Value("${app.images.derivative-queue:500}") int queueCapacity,
+                                  @Value("${app.images.max-decode-pixels:16000000}") long maxDecodePixels) {
+        this.fileStorageService = fileStorageService;
+        this.maxDecodePixels = maxDecodePixels;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "image-derivative-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                },
+                (r, executor) -> System.err.println("ImageDerivativeService: queue full, skipping derivative job."));
+    }
+
+    /**
+     * Queues variant generation for the given storage keys and returns immediately.
+     */
+    public void generateAsync(List<String> keys) {
+        for (String key : keys) {
+            workers.execute(() -> generate(key));
+        }
+    }
+
+    /**
+     * @return the variant's path if it has been generated, otherwise null
+     */
+    public Path findVariant(String key, Variant variant) {
+        Path path = fileStorageService.resolve(variantKey(key, variant));
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    void generate(String key) {
+        try {
+            Path original = fileStorageService.resolve(key);
+            BufferedImage source = null;
+
+            for (Variant variant : Variant.values()) {
+                Path target = fileStorageService.resolve(variantKey(key, variant));
+                if (Files.exists(target)) continue;
+
+                if (source == null) {
+                    source = decode(original);
+                    // Not decodable (unknown format or too large): keep serving the original
+                    if (source == null) return;
+                }
+                write(scale(source, variant.maxSide), target, variant.quality);
+            }
+        } catch (Exception e) {
+            System.err.println("ImageDerivativeService: Could not build variants for " + key + " | Error: " + e.getMessage());
+        }
+    }
+
+    // Header first, then a full or subsampled decode; null when the image should not be decoded
+    BufferedImage decode(Path original) throws Exception {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_SOURCE_PIXELS) {
+                    System.err.println("ImageDerivativeService: " + original.getFileName() + " is "
+                            + reader.getWidth(0) + "x" + reader.getHeight(0) + ", not generating variants.");
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (pixels > maxDecodePixels) {
+                    int step = (int) Math.ceil(Math.sqrt((double) pixels / maxDecodePixels));
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private String variantKey(String key, Variant variant) {
+        int dot = key.lastIndexOf('.');
+        int slash = key.lastIndexOf('/');
+        String base = dot > slash ? key.substring(0, dot) : key;
+        return base + variant.suffix();
+    }
+
+    private BufferedImage scale(BufferedImage source, int maxSide) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxSide / Math.max(w, h));
+        int targetW = Math.max(1, (int) Math.round(w * ratio));
+        int targetH = Math.max(1, (int) Math.round(h * ratio));
+
+        // Halve in steps first: a single bilinear pass from a large photo aliases badly
+        BufferedImage current = source;
+        int curW = w, curH = h;
+        while (curW / 2 >= targetW && curH / 2 >= targetH) {
+            curW /= 2;
+            curH /= 2;
+            current = draw(current, curW, curH);
+        }
+        return draw(current, targetW, targetH);
+    }
+
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        // JPEG has no alpha: flatten onto white
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private void write(BufferedImage image, Path target, float quality) throws Exception {
+        Path tmp = Files.createTempFile(target.getParent(), "variant-", ".part");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
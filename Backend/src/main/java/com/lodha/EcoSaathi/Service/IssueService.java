@@ -1,14 +1,25 @@
 package com.lodha.EcoSaathi.Service;
 
+import com.lodha.EcoSaathi.Dto.IssuePage;
+import com.lodha.EcoSaathi.Dto.IssueSummary;
 import com.lodha.EcoSaathi.Entity.*;
 import com.lodha.EcoSaathi.Repository.*;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
 
 @Service
 public class IssueService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final IssueRepository issueRepository;
     private final IssueMessageRepository issueMessageRepository;
     private final UserRepository userRepository;
@@ -44,6 +55,7 @@ public class IssueService {
     }
 
     // ✅ Create Issue (Updated to Send Email on Creation)
+    @Transactional
     public Issue createIssue(Long reporterId, String role, String subject, String description) {
         Issue issue = new Issue();
         issue.setSubject(subject);
@@ -108,6 +120,7 @@ public class IssueService {
     }
 
     // ✅ FIXED: addReply Method
+    @Transactional
     public Issue addReply(Long issueId, String role, Long senderId, String messageText) {
         Issue issue = issueRepository.findById(issueId)
                 .orElseThrow(() -> new RuntimeException("Issue not found"));
@@ -208,6 +221,7 @@ public class IssueService {
         return issue;
     }
 
+    @Transactional
     public Issue closeIssue(Long issueId, String role) {
         Issue issue = issueRepository.findById(issueId).orElseThrow();
         issue.setStatus("CLOSED");
@@ -221,7 +235,50 @@ public class IssueService {
         return savedIssue;
     }
 
-    public List<Issue> getAllIssues() { return issueRepository.findAll(); }
-    public List<Issue> getIssuesByUser(Long uid) { return issueRepository.findByUserId(uid); }
+    // 🔹 Ticket lists: summaries only (messages load in getIssueById), newest activity first
+    @Transactional(readOnly = true)
+    public IssuePage getIssueSummaries(Long userId, Long pickupPersonId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        LocalDateTime cursorUpdatedAt = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            Object[] decoded = decodeCursor(cursor);
+            cursorUpdatedAt = (LocalDateTime) decoded[0];
+            cursorId = (Long) decoded[1];
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<IssueSummary> rows = issueRepository.findSummaries(userId, pickupPersonId,
+                cursorUpdatedAt, cursorId, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<IssueSummary> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        IssuePage page = new IssuePage();
+        page.setItems(items);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            IssueSummary last = items.get(items.size() - 1);
+            page.setNextCursor(encodeCursor(last.getLastUpdatedAt(), last.getId()));
+        }
+        return page;
+    }
+
+    private String encodeCursor(LocalDateTime lastUpdatedAt, Long id) {
+        String raw = lastUpdatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Object[]{LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1))};
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid page cursor: " + cursor);
+        }
+    }
+
     public List<Issue> getIssuesByPickupPerson(Long pid) { return issueRepository.findByPickupPersonId(pid); }
 }
\ No newline at end of file
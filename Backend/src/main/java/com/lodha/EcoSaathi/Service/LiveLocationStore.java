@@ -0,0 +1,313 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.PickupPerson;
+import com.lodha.EcoSaathi.Repository.PickupPersonRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latest GPS position of every pickup agent, kept in memory.
+ *
+ * Each agent owns one fixed slot (sequence, agent id, lat, lng, timestamp,
+ * last persisted sequence) inside chunked AtomicLongArrays; slots of
+ * forgotten agents go on a free list and are handed to the next new agent.
+ * A position is
+ * written under a per-slot seqlock: the writer makes the sequence odd,
+ * stores the fields and makes it even again; readers retry until they see
+ * the same even sequence before and after, so they never block and never
+ * get a latitude from one update with the longitude of another.
+ *
+ * Only the newest position per agent reaches MySQL, every
+ * app.location.flush-ms, as a batched UPDATE of the two columns; the rest
+ * of the pickup_persons row is never touched.
+ *
+ * Positions are also kept in an AgentSpatialIndex for nearest-agent lookups.
+ * The index is moved (and, in forget, cleared) while the slot's sequence is
+ * odd, so its cell always follows the last write and a forgotten agent cannot
+ * be put back by an update that was still in flight.
+ * At startup the store is seeded with the positions already in the table,
+ * so agents that have not reported yet can still be found.
+ */
+@Component
+public class LiveLocationStore {
+
+    // Position as last reported; updatedAt is null when it only comes from the database
+    public record Location(double latitude, double longitude, LocalDateTime updatedAt) { }
+
+    private static final String UPDATE_SQL = "UPDATE pickup_persons SET latitude = ?, longitude = ? WHERE id = ?";
+
+    private static final int CHUNK_SLOTS = 1024;
+    private static final int STRIDE = 6;
+    private static final int SEQ = 0, AGENT = 1, LAT = 2, LNG = 3, TIME = 4, PERSISTED = 5;
+    private static final long NO_SLOT = -1L;
+
+    private final PickupPersonRepository pickupPersonRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final StripedLongLongMap slotByAgent = new StripedLongLongMap(64);
+    private final AtomicReferenceArray<AtomicLongArray> chunks;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+    private final AgentSpatialIndex spatialIndex;
+
+    public LiveLocationStore(PickupPersonRepository pickupPersonRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${app.location.max-agents:65536}") int maxAgents,
+                             @Value("${app.location.grid-cell-degrees:0.05}") double gridCellDegrees,
+                             @Value("${app.location.grid-max-rings:40}") int gridMaxRings) {
+        this(pickupPersonRepository, jdbcTemplate, maxAgents, new AgentSpatialIndex(gridCellDegrees, gridMaxRings));
+    }
+
+    LiveLocationStore(PickupPersonRepository pickupPersonRepository, JdbcTemplate jdbcTemplate,
+                      int maxAgents, AgentSpatialIndex spatialIndex) {
+        this.pickupPersonRepository = pickupPersonRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunks = new AtomicReferenceArray<>(Math.max(1, (maxAgents + CHUNK_SLOTS - 1) / CHUNK_SLOTS));
+        this.spatialIndex = spatialIndex;
+    }
+
+    // Positions already in the table, so the index knows every agent before they report
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStoredPositions() {
+        int loaded = 0;
+        for (PickupPerson person : pickupPersonRepository.findAll()) {
+            if (person.getLatitude() == null || person.getLongitude() == null) continue;
+            seed(person.getId(), person.getLatitude(), person.getLongitude());
+            loaded++;
+        }
+        System.out.println("📍 Loaded " + loaded + " stored agent positions");
+    }
+
+    // Known position from the database: not dirty, and no report time
+    void seed(Long agentId, double latitude, double longitude) {
+        int slot = (int) slotByAgent.get(agentId, NO_SLOT);
+        if (slot == NO_SLOT) slot = allocate(agentId);
+        AtomicLongArray chunk = chunk(slot);
+        int base = offset(slot);
+        long seq;
+        do {
+            seq = chunk.get(base + SEQ);
+            if (seq != 0) return; // the agent reported meanwhile; that position wins
+        } while (!chunk.compareAndSet(base + SEQ, 0, 1));
+        chunk.set(base + LAT, Double.doubleToRawLongBits(latitude));
+        chunk.set(base + LNG, Double.doubleToRawLongBits(longitude));
+        chunk.set(base + TIME, 0);
+        chunk.set(base + PERSISTED, 2);
+        spatialIndex.move(agentId, latitude, longitude);
+        chunk.set(base + SEQ, 2);
+    }
+
+    public Location update(Long agentId, double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new RuntimeException("Invalid coordinates: " + latitude + "," + longitude);
+        }
+        int slot = slotFor(agentId);
+        AtomicLongArray chunk = chunk(slot);
+        int base = offset(slot);
+        long now = System.currentTimeMillis();
+
+        long seq;
+        while (true) {
+            seq = chunk.get(base + SEQ);
+            if ((seq & 1) != 0 || !chunk.compareAndSet(base + SEQ, seq, seq + 1)) continue;
+            if (chunk.get(base + AGENT) == agentId) break;
+            // The slot was freed (and maybe reused) since the lookup: release it untouched and look again
+            chunk.set(base + SEQ, seq);
+            slot = slotFor(agentId);
+            chunk = chunk(slot);
+            base = offset(slot);
+        }
+        chunk.set(base + LAT, Double.doubleToRawLongBits(latitude));
+        chunk.set(base + LNG, Double.doubleToRawLongBits(longitude));
+        chunk.set(base + TIME, now);
+        spatialIndex.move(agentId, latitude, longitude);
+        chunk.set(base + SEQ, seq + 2);
+
+        return new Location(latitude, longitude, toDateTime(now));
+    }
+
+    /** Last known position of the agent (updatedAt is null if it has not reported since startup), or null. */
+    public Location get(Long agentId) {
+        long slot = agentId == null ? NO_SLOT : slotByAgent.get(agentId, NO_SLOT);
+        if (slot == NO_SLOT) return null;
+        long[] snapshot = read((int) slot);
+        return snapshot == null ? null : new Location(
+                Double.longBitsToDouble(snapshot[LAT]),
+                Double.longBitsToDouble(snapshot[LNG]),
+                snapshot[TIME] == 0 ? null : toDateTime(snapshot[TIME]));
+    }
+
+    /** The k agents nearest to the point, closest first. */
+    public List<AgentSpatialIndex.Neighbor> nearest(double latitude, double longitude, int k) {
+        return spatialIndex.nearest(latitude, longitude, k, agentId -> {
+            long slot = slotByAgent.get(agentId, NO_SLOT);
+            if (slot == NO_SLOT) return null;
+            long[] snapshot = read((int) slot);
+            return snapshot == null ? null : new double[]{
+                    Double.longBitsToDouble(snapshot[LAT]), Double.longBitsToDouble(snapshot[LNG])};
+        });
+    }
+
+    /** Live position if there is one, otherwise whatever the row last had. */
+    public Location locate(PickupPerson person) {
+        Location live = get(person.getId());
+        if (live != null) return live;
+        if (person.getLatitude() == null || person.getLongitude() == null) return null;
+        return new Location(person.getLatitude(), person.getLongitude(), null);
+    }
+
+    // Deleted agents stop being tracked; the slot is cleared and goes back on the free list.
+    // Synchronized with flush so a slot cannot change hands while a flush is writing it.
+    public synchronized void forget(Long agentId) {
+        long slot = slotByAgent.get(agentId, NO_SLOT);
+        if (slot == NO_SLOT) return;
+        slotByAgent.remove(agentId);
+
+        AtomicLongArray chunk = chunk((int) slot);
+        int base = offset((int) slot);
+        long seq;
+        do {
+            seq = chunk.get(base + SEQ);
+        } while ((seq & 1) != 0 || !chunk.compareAndSet(base + SEQ, seq, seq + 1));
+        // Under the slot lock: an update that already holds the slot has moved the index before this
+        spatialIndex.remove(agentId);
+        for (int i = 1; i < STRIDE; i++) chunk.set(base + i, 0);
+        chunk.set(base + SEQ, 0); // back to "never written"
+        freeSlots.add((int) slot);
+    }
+
+    public int trackedAgents() {
+        return slotByAgent.size();
+    }
+
+    int indexedAgents() {
+        return spatialIndex.size();
+    }
+
+    // ---------------------------------------------------------------
+    // THROTTLED PERSISTENCE
+    // ---------------------------------------------------------------
+
+    @Scheduled(fixedDelayString = "${app.location.flush-ms:30000}")
+    public synchronized int flush() {
+        List<Object[]> rows = new ArrayList<>();
+        List<long[]> written = new ArrayList<>(); // {slot, seq}
+        int used = Math.min(nextSlot.get(), chunks.length() * CHUNK_SLOTS);
+        for (int slot = 0; slot < used; slot++) {
+            long[] snapshot = read(slot);
+            if (snapshot == null || snapshot[AGENT] == 0 || snapshot[PERSISTED] >= snapshot[SEQ]) continue;
+            rows.add(new Object[]{
+                    Double.longBitsToDouble(snapshot[LAT]),
+                    Double.longBitsToDouble(snapshot[LNG]),
+                    snapshot[AGENT]});
+            written.add(new long[]{slot, snapshot[SEQ]});
+        }
+        if (rows.isEmpty()) return 0;
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        } catch (RuntimeException e) {
+            // Positions stay dirty and go out with the next flush
+            System.err.println("❌ Failed to persist " + rows.size() + " agent locations: " + e.getMessage());
+            return 0;
+        }
+        for (long[] w : written) {
+            chunk((int) w[0]).set(offset((int) w[0]) + PERSISTED, w[1]);
+        }
+        return rows.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // ---------------------------------------------------------------
+    // HELPERS
+    // ---------------------------------------------------------------
+
+    private int slotFor(Long agentId) {
+        long slot = slotByAgent.get(agentId, NO_SLOT);
+        if (slot != NO_SLOT) return (int) slot;
+
+        // First report from this agent since startup
+        if (!pickupPersonRepository.existsById(agentId)) {
+            throw new RuntimeException("Pickup Person not found with id: " + agentId);
+        }
+        return allocate(agentId);
+    }
+
+    private int allocate(Long agentId) {
+        Integer free = freeSlots.poll();
+        int fresh;
+        if (free != null) {
+            fresh = free;
+        } else {
+            fresh = nextSlot.getAndIncrement();
+            if (fresh >= chunks.length() * CHUNK_SLOTS) {
+                throw new RuntimeException("Live location store is full (app.location.max-agents).");
+            }
+        }
+        // Owner is set before the slot is published, so updaters can check it under the seqlock
+        chunk(fresh).set(offset(fresh) + AGENT, agentId);
+        int actual = (int) slotByAgent.putIfAbsent(agentId, fresh);
+        if (actual != fresh) {
+            // A concurrent first report won; hand the slot back instead of burning it
+            chunk(fresh).set(offset(fresh) + AGENT, 0);
+            freeSlots.add(fresh);
+        }
+        return actual;
+    }
+
+    // Seqlock read; null when the slot has never been written
+    private long[] read(int slot) {
+        AtomicLongArray chunk = chunks.get(slot / CHUNK_SLOTS);
+        if (chunk == null) return null;
+        int base = offset(slot);
+        long[] snapshot = new long[STRIDE];
+        while (true) {
+            long seq = chunk.get(base + SEQ);
+            if (seq == 0) return null;
+            if ((seq & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            for (int i = 1; i < STRIDE; i++) snapshot[i] = chunk.get(base + i);
+            if (chunk.get(base + SEQ) == seq) {
+                snapshot[SEQ] = seq;
+                return snapshot;
+            }
+        }
+    }
+
+    private AtomicLongArray chunk(int slot) {
+        int index = slot / CHUNK_SLOTS;
+        AtomicLongArray chunk = chunks.get(index);
+        if (chunk != null) return chunk;
+        chunks.compareAndSet(index, null, new AtomicLongArray(CHUNK_SLOTS * STRIDE));
+        return chunks.get(index);
+    }
+
+    private static int offset(int slot) {
+        return (slot % CHUNK_SLOTS) * STRIDE;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,283 @@
+package com.lodha.EcoSaathi.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only log of every location report, for route replay and delay audits.
+ *
+ * Records are fixed-width (24 bytes: agent id, epoch millis, lat and lng as
+ * ints scaled by 1e7) and are written into a memory-mapped segment file.
+ * A new segment starts every app.location.trail-segment-minutes (aligned to
+ * the clock) or when the current one is full, so a time-range replay only
+ * opens the segments that overlap the range. Nothing here touches MySQL.
+ *
+ * Segment files are named trail-&lt;startMillis&gt;-&lt;n&gt;.seg. Unused space
+ * is zero-filled and agent id 0 never occurs, so a zero id marks the end of
+ * a segment. Closed segments keep their zero tail: the mapping is only
+ * released by the GC and truncating a file that is still mapped is unsafe,
+ * so keep app.location.trail-segment-records modest.
+ *
+ * The trail is best-effort: a segment that cannot be opened drops the point
+ * (counted in pointsDropped) instead of failing the live location update.
+ */
+@Component
+public class LocationTrailLog {
+
+    // One recorded position
+    public record TrailPoint(double latitude, double longitude, LocalDateTime at) { }
+
+    static final int RECORD_BYTES = 24;
+    private static final double SCALE = 1e7;
+
+    private final Path dir;
+    private final long segmentMillis;
+    private final int segmentRecords;
+    private final long retentionMillis;
+    private final int maxReplayPoints;
+
+    // Active segment; replaced under the monitor, read lock-free by replay
+    private volatile Segment active;
+
+    // 🔹 Metrics
+    private final AtomicLong pointsWritten = new AtomicLong();
+    private final AtomicLong segmentsOpened = new AtomicLong();
+    private final AtomicLong pointsDropped = new AtomicLong();
+
+    private static final class Segment {
+        final Path path;
+        final long start;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        volatile int count; // records published to readers
+
+        Segment(Path path, long start, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.start = start;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    public LocationTrailLog(@Value("${app.location.trail-dir:./trail}") String dir,
+                            @Value("${app.location.trail-segment-minutes:60}") long segmentMinutes,
+                            @Value("${app.location.trail-segment-records:100000}") int segmentRecords,
+                            @Value("${app.location.trail-retention-days:30}") long retentionDays,
+                            @Value("${app.location.trail-max-points:20000}") int maxReplayPoints) {
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        this.segmentMillis = Math.max(1, segmentMinutes) * 60_000L;
+        this.segmentRecords = Math.max(1, segmentRecords);
+        this.retentionMillis = retentionDays * 86_400_000L;
+        this.maxReplayPoints = Math.max(1, maxReplayPoints);
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create the location trail directory.", e);
+        }
+    }
+
+    public void append(long agentId, double latitude, double longitude) {
+        append(agentId, System.currentTimeMillis(), latitude, longitude);
+    }
+
+    public synchronized void append(long agentId, long epochMillis, double latitude, double longitude) {
+        Segment segment = active;
+        if (segment == null || epochMillis >= segment.start + segmentMillis
+                || epochMillis < segment.start || segment.count == segmentRecords) {
+            try {
+                segment = roll(epochMillis);
+            } catch (UncheckedIOException e) {
+                pointsDropped.incrementAndGet();
+                System.err.println("❌ Location trail point dropped for agent " + agentId + ": " + e.getMessage());
+                return;
+            }
+        }
+        int at = segment.count * RECORD_BYTES;
+        MappedByteBuffer buf = segment.buffer;
+        buf.putLong(at, agentId);
+        buf.putLong(at + 8, epochMillis);
+        buf.putInt(at + 16, (int) Math.round(latitude * SCALE));
+        buf.putInt(at + 20, (int) Math.round(longitude * SCALE));
+        segment.count = segment.count + 1; // volatile write publishes the record
+        pointsWritten.incrementAndGet();
+    }
+
+    /** One agent's positions between from and to (inclusive), oldest first. */
+    public List<TrailPoint> replay(long agentId, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+        List<TrailPoint> points = new ArrayList<>();
+        if (toMillis < fromMillis) return points;
+
+        Segment current = active;
+        for (Path path : segmentsOverlapping(fromMillis, toMillis)) {
+            if (current != null && path.equals(current.path)) {
+                scan(current.buffer.duplicate(), current.count, agentId, fromMillis, toMillis, points);
+            } else {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    long size = channel.size();
+                    if (size < RECORD_BYTES) continue;
+                    MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                    scan(buf, (int) (size / RECORD_BYTES), agentId, fromMillis, toMillis, points);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read trail segment " + path.getFileName(), e);
+                }
+            }
+            if (points.size() >= maxReplayPoints) break;
+        }
+        return points;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Segment segment = active;
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("pointsWritten", pointsWritten.get());
+        metrics.put("segmentsOpened", segmentsOpened.get());
+        metrics.put("pointsDropped", pointsDropped.get());
+        metrics.put("activeSegment", segment != null ? segment.path.getFileName().toString() : null);
+        metrics.put("activeSegmentRecords", segment != null ? segment.count : 0);
+        return metrics;
+    }
+
+    // ---------------------------------------------------------------
+    // RETENTION
+    // ---------------------------------------------------------------
+
+    @Scheduled(cron = "${app.location.trail-purge-cron:0 45 3 * * *}")
+    public int purgeOldSegments() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        Segment current = active;
+        int deleted = 0;
+        for (Path path : listSegments()) {
+            if (current != null && path.equals(current.path)) continue;
+            if (startOf(path) + segmentMillis <= cutoff) {
+                try {
+                    Files.deleteIfExists(path);
+                    deleted++;
+                } catch (IOException e) {
+                    System.err.println("❌ Could not delete trail segment " + path.getFileName() + ": " + e.getMessage());
+                }
+            }
+        }
+        if (deleted > 0) System.out.println("🧹 Deleted " + deleted + " old location trail segments");
+        return deleted;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (active != null) {
+            close(active);
+            active = null;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // HELPERS
+    // ---------------------------------------------------------------
+
+    private Segment roll(long epochMillis) {
+        if (active != null) {
+            close(active);
+            active = null; // a failed open below must not leave the closed segment active
+        }
+        long start = Math.floorDiv(epochMillis, segmentMillis) * segmentMillis;
+        try {
+            Path path;
+            int n = 0;
+            do {
+                path = dir.resolve("trail-" + start + "-" + n++ + ".seg");
+            } while (Files.exists(path));
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_BYTES);
+            segmentsOpened.incrementAndGet();
+            active = new Segment(path, start, channel, buffer);
+            return active;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open a new trail segment", e);
+        }
+    }
+
+    // Flush to disk; the zero tail stays because the buffer is still mapped
+    private void close(Segment segment) {
+        try {
+            segment.buffer.force();
+            segment.channel.close();
+        } catch (IOException e) {
+            System.err.println("❌ Could not close trail segment " + segment.path.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private static void scan(ByteBuffer buf, int records, long agentId, long from, long to, List<TrailPoint> out) {
+        for (int i = 0; i < records; i++) {
+            int at = i * RECORD_BYTES;
+            long id = buf.getLong(at);
+            if (id == 0) return; // end of an unclosed segment
+            if (id != agentId) continue;
+            long time = buf.getLong(at + 8);
+            if (time < from || time > to) continue;
+            out.add(new TrailPoint(buf.getInt(at + 16) / SCALE, buf.getInt(at + 20) / SCALE, toDateTime(time)));
+        }
+    }
+
+    private List<Path> segmentsOverlapping(long from, long to) {
+        List<Path> matching = new ArrayList<>();
+        for (Path path : listSegments()) {
+            long start = startOf(path);
+            if (start <= to && start + segmentMillis > from) matching.add(path);
+        }
+        // Oldest first; files of the same period in creation order
+        matching.sort(Comparator.comparingLong(LocationTrailLog::startOf).thenComparingInt(LocationTrailLog::partOf));
+        return matching;
+    }
+
+    private List<Path> listSegments() {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "trail-*.seg")) {
+            stream.forEach(paths::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list trail segments", e);
+        }
+        return paths;
+    }
+
+    private static long startOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(6, name.lastIndexOf('-')));
+    }
+
+    private static int partOf(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(name.lastIndexOf('-') + 1, name.length() - 4));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,247 @@
+package com.lodha.EcoSaathi.Service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends mail over a small pool of long-lived SMTP connections.
+ * A batch is split across the worker threads; each worker borrows one
+ * connected Transport and pushes its whole share through it, so the
+ * connect/STARTTLS/AUTH handshake is paid once per connection instead of
+ * once per message. Connections are recycled after
+ * app.mail.dispatch.max-messages-per-connection or when found dead.
+ */
+@Component
+public class MailDispatchEngine {
+
+    // One email ready to go out
+    public record Mail(String to, String subject, String html) { }
+
+    private static final class PooledTransport {
+        final Transport transport;
+        int messagesSent;
+        long lastUsedAt = System.currentTimeMillis();
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+
+    private final JavaMailSender mailSender;
+    private final JavaMailSenderImpl smtp; // null when a non-SMTP sender is configured
+    private final String senderEmail;
+    private final String senderName;
+    private final int threads;
+    private final int maxMessagesPerConnection;
+    private final long idleCheckMs;
+
+    private final ThreadPoolExecutor executor;
+    private final LinkedBlockingQueue<PooledTransport> idle = new LinkedBlockingQueue<>();
+
+    // 🔹 Metrics
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+
+    public MailDispatchEngine(JavaMailSender mailSender,
+                              @Value("${app.mail.sender}") String senderEmail,
+                              @Value("${app.mail.sender-name}") String senderName,
+                              @Value("${app.mail.dispatch.threads:4}") int threads,
+                              @Value("${app.mail.dispatch.queue:1000}") int queueCapacity,
+                              @Value("${app.mail.dispatch.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                              @Value("${app.mail.dispatch.idle-check-ms:30000}") long idleCheckMs) {
+        this.mailSender = mailSender;
+        this.smtp = mailSender instanceof JavaMailSenderImpl impl ? impl : null;
+        this.senderEmail = senderEmail;
+        this.senderName = senderName;
+        this.threads = Math.max(1, threads);
+        this.maxMessagesPerConnection = Math.max(1, maxMessagesPerConnection);
+        this.idleCheckMs = idleCheckMs;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "mail-dispatch-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Send all mails, in parallel across pooled connections.
+     * Returns one entry per mail, in order: null when delivered, otherwise the failure.
+     */
+    public List<Exception> sendAll(List<Mail> mails) {
+        Exception[] results = new Exception[mails.size()];
+        if (mails.isEmpty()) return Arrays.asList(results);
+
+        int workers = Math.min(threads, mails.size());
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            final int worker = w;
+            futures.add(executor.submit(() -> {
+                // Strided split: worker w sends mails w, w+workers, w+2*workers ...
+                for (int i = worker; i < mails.size(); i += workers) {
+                    results[i] = sendOne(mails.get(i));
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while sending mail batch", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Mail worker failed", e.getCause());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private Exception sendOne(Mail mail) {
+        long start = System.nanoTime();
+        try {
+            MimeMessage message = createMessage(mail);
+            if (smtp == null) {
+                mailSender.send(message);
+            } else {
+                sendPooled(message);
+            }
+            sent.increment();
+            return null;
+        } catch (Exception e) {
+            failed.increment();
+            return e;
+        } finally {
+            sendNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private MimeMessage createMessage(Mail mail) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(senderEmail, senderName);
+        helper.setTo(mail.to());
+        helper.setSubject(mail.subject());
+        helper.setText(mail.html(), true);
+        message.saveChanges();
+        return message;
+    }
+
+    // Send over a borrowed connection; a broken connection is replaced and the message retried once
+    private void sendPooled(MimeMessage message) throws MessagingException {
+        Address[] recipients = message.getAllRecipients();
+        PooledTransport pooled = borrow();
+        try {
+            pooled.transport.sendMessage(message, recipients);
+        } catch (SendFailedException e) {
+            // Recipient-level rejection: the connection is still fine, the outbox decides about retrying
+            release(pooled);
+            throw e;
+        } catch (MessagingException e) {
+            discard(pooled);
+            retried.increment();
+            pooled = borrow();
+            try {
+                pooled.transport.sendMessage(message, recipients);
+            } catch (MessagingException again) {
+                discard(pooled);
+                throw again;
+            }
+        }
+        pooled.messagesSent++;
+        pooled.lastUsedAt = System.currentTimeMillis();
+        if (pooled.messagesSent >= maxMessagesPerConnection) {
+            discard(pooled);
+        } else {
+            release(pooled);
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            boolean stale = System.currentTimeMillis() - pooled.lastUsedAt > idleCheckMs;
+            if (!stale || pooled.transport.isConnected()) return pooled;
+            discard(pooled);
+        }
+        return open();
+    }
+
+    private PooledTransport open() throws MessagingException {
+        Session session = smtp.getSession();
+        Transport transport = session.getTransport(smtp.getProtocol() != null ? smtp.getProtocol() : "smtp");
+        transport.connect(smtp.getHost(), smtp.getPort(), smtp.getUsername(), smtp.getPassword());
+        connectionsOpened.increment();
+        return new PooledTransport(transport);
+    }
+
+    private void release(PooledTransport pooled) {
+        idle.offer(pooled);
+    }
+
+    private void discard(PooledTransport pooled) {
+        try {
+            pooled.transport.close();
+        } catch (MessagingException ignored) {
+            // already broken
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        long total = sent.sum() + failed.sum();
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("sent", sent.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("retriedOnNewConnection", retried.sum());
+        metrics.put("connectionsOpened", connectionsOpened.sum());
+        metrics.put("idleConnections", idle.size());
+        metrics.put("queued", executor.getQueue().size());
+        metrics.put("avgSendMillis", total == 0 ? 0.0 : sendNanos.sum() / 1_000_000.0 / total);
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            discard(pooled);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+
+/**
+ * OpenStreetMap Nominatim lookup. RestTemplate and ObjectMapper are built once and shared.
+ */
+@Component
+public class NominatimGeocoder implements Geocoder {
+
+    private static final String SEARCH_URL = "https://nominatim.openstreetmap.org/search";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public NominatimGeocoder() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(3000);
+        factory.setReadTimeout(5000);
+        this.restTemplate = new RestTemplate(factory);
+    }
+
+    @Override
+    public double[] geocode(String address) {
+        URI uri = UriComponentsBuilder.fromUriString(SEARCH_URL)
+                .queryParam("q", address)
+                .queryParam("format", "json")
+                .queryParam("limit", 1)
+                .encode()
+                .build()
+                .toUri();
+
+        // Nominatim usage policy requires an identifying User-Agent
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.USER_AGENT, "EcoSaathi/1.0");
+
+        String response = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody();
+
+        try {
+            JsonNode root = mapper.readTree(response);
+            if (root.isArray() && root.size() > 0) {
+                double lat = root.get(0).get("lat").asDouble();
+                double lon = root.get(0).get("lon").asDouble();
+                return new double[]{lat, lon};
+            }
+            return null;
+        } catch (Exception e) {
+            throw new RuntimeException("Unreadable geocoding response for: " + address, e);
+        }
+    }
+}
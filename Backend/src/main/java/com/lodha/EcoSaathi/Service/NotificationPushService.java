@@ -0,0 +1,117 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of open Server-Sent Events streams, keyed by user id.
+ * An idle subscriber holds no thread and costs no DB queries: the
+ * servlet request stays in async mode and events are written only
+ * when a notification is created or the unread count changes.
+ */
+@Service
+public class NotificationPushService {
+
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @Value("${app.notifications.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    // ✅ Open a stream for one user (a user may have several tabs open)
+    public SseEmitter subscribe(Long userId, long unreadCount) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        // Add inside compute so a concurrent unsubscribe cannot drop the list we are adding to
+        subscribers.compute(userId, (k, list) -> {
+            list = list == null ? new CopyOnWriteArrayList<>() : list;
+            list.add(emitter);
+            return list;
+        });
+        connections.incrementAndGet();
+
+        Runnable remove = () -> unsubscribe(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // Initial state so the client needs no separate count request
+        send(userId, emitter, "unread-count", unreadCount);
+        return emitter;
+    }
+
+    private void unsubscribe(Long userId, SseEmitter emitter) {
+        subscribers.computeIfPresent(userId, (k, list) -> {
+            if (list.remove(emitter)) connections.decrementAndGet();
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    // ✅ Push a new notification plus the new unread count (callers invoke this after commit)
+    public void publishNotification(Long userId, Notification notification, long unreadCount) {
+        if (!subscribers.containsKey(userId)) return;
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("id", notification.getId());
+        payload.put("message", notification.getMessage());
+        payload.put("type", notification.getType());
+        payload.put("read", notification.isRead());
+        payload.put("createdAt", notification.getCreatedAt());
+
+        broadcast(userId, "notification", payload);
+        broadcast(userId, "unread-count", unreadCount);
+    }
+
+    public void publishUnreadCount(Long userId, long unreadCount) {
+        if (!subscribers.containsKey(userId)) return;
+        broadcast(userId, "unread-count", unreadCount);
+    }
+
+    public boolean hasSubscribers(Long userId) {
+        return subscribers.containsKey(userId);
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    // Comment line every interval: keeps proxies from closing idle streams and flushes out dead clients
+    @Scheduled(fixedDelayString = "${app.notifications.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.forEach((userId, list) -> {
+            for (SseEmitter emitter : list) {
+                try {
+                    emitter.send(SseEmitter.event().comment("hb"));
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(userId, emitter);
+                }
+            }
+        });
+    }
+
+    private void broadcast(Long userId, String event, Object data) {
+        List<SseEmitter> list = subscribers.get(userId);
+        if (list == null) return;
+        for (SseEmitter emitter : list) {
+            send(userId, emitter, event, data);
+        }
+    }
+
+    private void send(Long userId, SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(userId, emitter);
+        }
+    }
+}
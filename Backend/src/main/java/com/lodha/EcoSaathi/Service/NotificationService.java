@@ -3,52 +3,161 @@ package com.lodha.EcoSaathi.Service;
 import com.lodha.EcoSaathi.Entity.Notification;
 import com.lodha.EcoSaathi.Entity.User;
 import com.lodha.EcoSaathi.Repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class NotificationService {
 
+    private static final int MAX_FEED_PAGE = 100;
+
+    @Value("${app.notifications.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${app.notifications.retention-chunk-size:1000}")
+    private int retentionChunkSize;
+
+    @Value("${app.notifications.retention-max-chunks:500}")
+    private int retentionMaxChunks;
+
+    @Value("${app.notifications.retention-pause-ms:50}")
+    private long retentionPauseMs;
+
     private final NotificationRepository notificationRepository;
+    // ✅ NEW: live push to connected clients (replaces polling)
+    private final NotificationPushService notificationPushService;
+    // ✅ NEW: cached unread counts, so the badge never hits MySQL
+    private final UnreadCountService unreadCountService;
+    // ✅ NEW: batched background inserts
+    private final NotificationWriter notificationWriter;
 
-    public NotificationService(NotificationRepository notificationRepository) {
+    public NotificationService(NotificationRepository notificationRepository,
+                               NotificationPushService notificationPushService,
+                               UnreadCountService unreadCountService,
+                               NotificationWriter notificationWriter) {
         this.notificationRepository = notificationRepository;
+        this.notificationPushService = notificationPushService;
+        this.unreadCountService = unreadCountService;
+        this.notificationWriter = notificationWriter;
     }
 
-    // ✅ Create Notification
+    // ✅ Create Notification: queued once the caller's transaction commits, written in batches by NotificationWriter
     public void createNotification(User user, String message, String type) {
         if (user == null) return;
 
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setMessage(message);
-        notification.setType(type);
+        Long userId = user.getId();
+        afterCommit(() -> notificationWriter.submit(userId, message, type));
+    }
 
-        notificationRepository.save(notification);
+    // Writes whatever is still queued, e.g. before a user's notifications are deleted
+    public void flushPending() {
+        notificationWriter.flush();
     }
 
-    // ✅ Get User Notifications
-    public List<Notification> getUserNotifications(Long userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public Map<String, Object> getWriterMetrics() {
+        return notificationWriter.getMetrics();
+    }
+
+    // ✅ Open a live stream (SSE) of new notifications and unread-count changes
+    public SseEmitter subscribe(Long userId) {
+        return notificationPushService.subscribe(userId, getUnreadCount(userId));
+    }
+
+    // ✅ Get User Notifications (one page, newest first; pass the last id seen as 'before' for the next page)
+    public List<Notification> getUserNotifications(Long userId, Long before, int limit) {
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_FEED_PAGE)));
+        return before == null
+                ? notificationRepository.findByUserIdOrderByIdDesc(userId, page)
+                : notificationRepository.findByUserIdAndIdLessThanOrderByIdDesc(userId, before, page);
+    }
+
+    // ✅ Mark all as read with a single UPDATE
+    public int markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllRead(userId);
+        afterCommit(() -> {
+            unreadCountService.reset(userId);
+            notificationPushService.publishUnreadCount(userId, 0);
+        });
+        return updated;
     }
 
     // ✅ Mark as Read
     public void markAsRead(Long id) {
         notificationRepository.findById(id).ifPresent(n -> {
+            if (n.isRead()) return;
             n.setRead(true);
             notificationRepository.save(n);
+            if (n.getUser() == null) return;
+
+            Long userId = n.getUser().getId();
+            afterCommit(() -> {
+                unreadCountService.decrement(userId);
+                notificationPushService.publishUnreadCount(userId, unreadCountService.get(userId));
+            });
         });
     }
 
     // Add to NotificationService.java
     public long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return unreadCountService.get(userId);
     }
 
-    // ✅ Clear All
+    // ✅ Clear All (single DELETE)
     public void clearAll(Long userId) {
-        List<Notification> list = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        notificationRepository.deleteAll(list);
+        notificationRepository.deleteByUserId(userId);
+        afterCommit(() -> {
+            unreadCountService.reset(userId);
+            notificationPushService.publishUnreadCount(userId, 0);
+        });
+    }
+
+    // ✅ Retention: purge read notifications older than the configured age, in small chunks.
+    // Each chunk is its own short transaction so the purge never holds locks for long.
+    @Scheduled(cron = "${app.notifications.retention-cron:0 15 4 * * *}")
+    public int purgeOldReadNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        for (int chunk = 0; chunk < retentionMaxChunks; chunk++) {
+            List<Long> ids = notificationRepository.findReadIdsCreatedBefore(cutoff, PageRequest.of(0, retentionChunkSize));
+            if (ids.isEmpty()) break;
+            total += notificationRepository.deleteByIdIn(ids);
+            if (ids.size() < retentionChunkSize) break;
+            pause();
+        }
+        if (total > 0) System.out.println("🧹 Purged " + total + " read notifications older than " + retentionDays + " days.");
+        return total;
+    }
+
+    private void pause() {
+        if (retentionPauseMs <= 0) return;
+        try {
+            Thread.sleep(retentionPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Counters and pushes must only reflect committed changes
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
-}
\ No newline at end of file
+}
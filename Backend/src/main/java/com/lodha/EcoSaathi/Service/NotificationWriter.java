@@ -0,0 +1,303 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.Notification;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes notifications in the background as JDBC batch inserts.
+ *
+ * Producers (any request thread) drop rows into a bounded queue; one
+ * writer thread collects up to app.notifications.writer.batch-size rows or
+ * waits at most flush-interval-ms, then inserts them with a single batched
+ * statement and hands the generated ids to the unread counter and the live
+ * push. When the queue is full the producer inserts its own row in-line
+ * rather than dropping it under overload.
+ *
+ * Notifications are best-effort, unlike the email outbox: a row is written
+ * after the caller's transaction commits, not together with it, so a crash
+ * can lose what is still queued, and rows whose user was deleted in the
+ * meantime are skipped (counted in skippedRows).
+ *
+ * Hibernate cannot batch IDENTITY inserts, but plain JDBC can (and the MySQL
+ * driver rewrites the batch into one multi-row INSERT), so the id column
+ * stays as it is.
+ */
+@Component
+public class NotificationWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (message, type, is_read, created_at, user_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String EXISTING_USERS_SQL = "SELECT id FROM users WHERE id IN (%s)";
+
+    // One row waiting to be written
+    record Pending(Long userId, String message, String type, LocalDateTime createdAt) { }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadCountService unreadCountService;
+    private final NotificationPushService notificationPushService;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    // Held while a batch is taken from the queue and written, so flush() really waits for everything queued before it
+    // (at most one flush interval while the worker sits idle)
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean running;
+    private Thread worker;
+
+    // 🔹 Metrics
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong inlineWrites = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AtomicLong skippedRows = new AtomicLong();
+    private final AtomicLong flushNanosTotal = new AtomicLong();
+    private final AtomicLong flushNanosMax = new AtomicLong();
+
+    public NotificationWriter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              UnreadCountService unreadCountService,
+                              NotificationPushService notificationPushService,
+                              @Value("${app.notifications.writer.queue-capacity:10000}") int queueCapacity,
+                              @Value("${app.notifications.writer.batch-size:200}") int batchSize,
+                              @Value("${app.notifications.writer.flush-interval-ms:50}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.unreadCountService = unreadCountService;
+        this.notificationPushService = notificationPushService;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "notification-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void submit(Long userId, String message, String type) {
+        Pending row = new Pending(userId, message, type, LocalDateTime.now());
+        if (!queue.offer(row)) {
+            // Backpressure: the caller pays for its own insert instead of losing it
+            inlineWrites.incrementAndGet();
+            write(List.of(row));
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // Poll under the lock too, otherwise flush() could miss a row the worker is holding
+                writeLock.lockInterruptibly();
+                try {
+                    Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    // Give producers up to one interval to fill the batch
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long left = deadline - System.nanoTime();
+                        if (batch.size() >= batchSize || left <= 0) break;
+                        Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+                        if (next == null) break;
+                        batch.add(next);
+                    }
+                    write(batch);
+                } finally {
+                    batch.clear();
+                    writeLock.unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Notification writer error: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Writes everything queued so far before returning. */
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void write(List<Pending> rows) {
+        long start = System.nanoTime();
+        List<Long> ids;
+        try {
+            // All or nothing, so the retries below cannot duplicate anything
+            ids = transactionTemplate.execute(tx -> insertBatch(rows));
+        } catch (RuntimeException e) {
+            ids = retry(rows);
+        }
+        long took = System.nanoTime() - start;
+        batches.incrementAndGet();
+        flushNanosTotal.addAndGet(took);
+        flushNanosMax.accumulateAndGet(took, Math::max);
+
+        for (int i = 0; i < rows.size(); i++) {
+            if (ids.get(i) != null) published(ids.get(i), rows.get(i));
+        }
+    }
+
+    // A failed batch is usually a user deleted after their rows were queued: drop those rows
+    // and write the rest as one batch again, falling back to one row at a time
+    private List<Long> retry(List<Pending> rows) {
+        Set<Long> existing = existingUsers(rows);
+        List<Integer> kept = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (existing.contains(rows.get(i).userId())) {
+                kept.add(i);
+            } else {
+                skippedRows.incrementAndGet();
+            }
+        }
+        if (kept.size() < rows.size()) {
+            System.err.println("⚠️ Skipped " + (rows.size() - kept.size()) + " notifications for deleted users");
+        }
+
+        List<Long> ids = new ArrayList<>(Collections.nCopies(rows.size(), (Long) null));
+        if (!kept.isEmpty() && kept.size() < rows.size()) {
+            try {
+                List<Pending> batch = kept.stream().map(rows::get).toList();
+                List<Long> batchIds = transactionTemplate.execute(tx -> insertBatch(batch));
+                for (int k = 0; k < kept.size(); k++) ids.set(kept.get(k), batchIds.get(k));
+                return ids;
+            } catch (RuntimeException e) {
+                // Still failing: find the bad row one at a time
+            }
+        }
+        for (int i : kept) {
+            Pending row = rows.get(i);
+            try {
+                ids.set(i, insertBatch(List.of(row)).get(0));
+            } catch (RuntimeException single) {
+                failedRows.incrementAndGet();
+                System.err.println("❌ Could not store notification for user " + row.userId() + ": " + single.getMessage());
+            }
+        }
+        return ids;
+    }
+
+    private Set<Long> existingUsers(List<Pending> rows) {
+        Set<Long> userIds = new HashSet<>();
+        for (Pending row : rows) userIds.add(row.userId());
+        String placeholders = String.join(",", Collections.nCopies(userIds.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                String.format(EXISTING_USERS_SQL, placeholders), Long.class, userIds.toArray()));
+    }
+
+    private List<Long> insertBatch(List<Pending> rows) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Pending row = rows.get(i);
+                        ps.setString(1, row.message());
+                        ps.setString(2, row.type());
+                        ps.setBoolean(3, false);
+                        ps.setTimestamp(4, Timestamp.valueOf(row.createdAt()));
+                        ps.setLong(5, row.userId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keys);
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        rowsWritten.addAndGet(rows.size());
+        return ids;
+    }
+
+    // Row is committed: move the unread counter and push it to open streams
+    private void published(Long id, Pending row) {
+        unreadCountService.increment(row.userId());
+        if (notificationPushService.hasSubscribers(row.userId())) {
+            Notification notification = new Notification();
+            notification.setId(id);
+            notification.setMessage(row.message());
+            notification.setType(row.type());
+            notification.setCreatedAt(row.createdAt());
+            notificationPushService.publishNotification(row.userId(), notification, unreadCountService.get(row.userId()));
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        long b = batches.get();
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("rowsWritten", rowsWritten.get());
+        metrics.put("batches", b);
+        metrics.put("avgBatchSize", b == 0 ? 0.0 : (double) rowsWritten.get() / b);
+        metrics.put("inlineWrites", inlineWrites.get());
+        metrics.put("failedRows", failedRows.get());
+        metrics.put("skippedRows", skippedRows.get());
+        metrics.put("avgFlushMillis", b == 0 ? 0.0 : flushNanosTotal.get() / 1_000_000.0 / b);
+        metrics.put("maxFlushMillis", flushNanosMax.get() / 1_000_000.0);
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // The worker polls with a short timeout, so it notices this within one interval
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+}
@@ -0,0 +1,109 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.OutboxMessage;
+import com.lodha.EcoSaathi.Entity.OutboxStatus;
+import com.lodha.EcoSaathi.Repository.OutboxMessageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains the outbox in the background: delivers due messages in batches,
+ * retries failures with exponential backoff and marks them FAILED after
+ * app.outbox.max-attempts. HTTP requests never wait on SMTP.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final MailDispatchEngine mailDispatchEngine;
+    private final EmailCoalescer emailCoalescer;
+
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${app.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxDispatcher(OutboxMessageRepository outboxMessageRepository, MailDispatchEngine mailDispatchEngine,
+                            EmailCoalescer emailCoalescer) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.mailDispatchEngine = mailDispatchEngine;
+        this.emailCoalescer = emailCoalescer;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<OutboxMessage> due = outboxMessageRepository.findDue(
+                    OutboxStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (due.isEmpty()) return;
+
+            deliver(due);
+            if (due.size() < batchSize) return;
+        }
+    }
+
+    // Whole batch goes to the engine at once, so it is spread over the pooled SMTP connections
+    private void deliver(List<OutboxMessage> due) {
+        due = emailCoalescer.coalesce(due);
+        List<MailDispatchEngine.Mail> mails = new ArrayList<>(due.size());
+        for (OutboxMessage message : due) {
+            mails.add(new MailDispatchEngine.Mail(message.getRecipient(), message.getSubject(), message.getBody()));
+        }
+        List<Exception> errors = mailDispatchEngine.sendAll(mails);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < due.size(); i++) {
+            OutboxMessage message = due.get(i);
+            message.setAttempts(message.getAttempts() + 1);
+            if (errors.get(i) == null) {
+                message.setStatus(OutboxStatus.SENT);
+                message.setSentAt(now);
+                message.setLastError(null);
+            } else {
+                recordFailure(message, errors.get(i));
+            }
+        }
+        outboxMessageRepository.saveAll(due);
+    }
+
+    private void recordFailure(OutboxMessage message, Exception e) {
+        int attempts = message.getAttempts();
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        message.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+
+        if (attempts >= maxAttempts) {
+            message.setStatus(OutboxStatus.FAILED);
+            System.err.println("❌ Outbox: giving up on message #" + message.getId() + " to " + message.getRecipient());
+            return;
+        }
+        // 30s, 1m, 2m, 4m ... capped
+        long delay = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 20));
+        message.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 30 3 * * *}")
+    public void purgeSent() {
+        int removed = outboxMessageRepository.deleteSentBefore(
+                List.of(OutboxStatus.SENT, OutboxStatus.MERGED), LocalDateTime.now().minusDays(retentionDays));
+        if (removed > 0) System.out.println("Outbox: purged " + removed + " delivered messages.");
+    }
+}
@@ -0,0 +1,64 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.OutboxMessage;
+import com.lodha.EcoSaathi.Entity.OutboxStatus;
+import com.lodha.EcoSaathi.Repository.OutboxMessageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+public class OutboxService {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final MailDispatchEngine mailDispatchEngine;
+
+    @Value("${app.outbox.coalesce-window-ms:60000}")
+    private long coalesceWindowMs;
+
+    public OutboxService(OutboxMessageRepository outboxMessageRepository, MailDispatchEngine mailDispatchEngine) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.mailDispatchEngine = mailDispatchEngine;
+    }
+
+    // ✅ Record an email; joins the caller's transaction, so it commits (or rolls back) with the state change
+    public void enqueueEmail(String to, String subject, String htmlContent) {
+        enqueueEmail(to, subject, htmlContent, false);
+    }
+
+    // Coalescible emails wait out the digest window so later updates for the same recipient can be merged in
+    public void enqueueEmail(String to, String subject, String htmlContent, boolean coalescible) {
+        if (to == null || to.isBlank()) {
+            System.err.println("Outbox: skipping email without recipient: " + subject);
+            return;
+        }
+        OutboxMessage message = new OutboxMessage();
+        message.setRecipient(to);
+        message.setSubject(subject);
+        message.setBody(htmlContent);
+        if (coalescible && coalesceWindowMs > 0) {
+            message.setCoalescible(true);
+            message.setNextAttemptAt(message.getCreatedAt().plusNanos(coalesceWindowMs * 1_000_000));
+        }
+        outboxMessageRepository.save(message);
+    }
+
+    // ✅ Queue depth and SMTP transport metrics for the admin dashboard / monitoring
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", outboxMessageRepository.countByStatus(OutboxStatus.PENDING));
+        stats.put("failed", outboxMessageRepository.countByStatus(OutboxStatus.FAILED));
+        stats.put("sent", outboxMessageRepository.countByStatus(OutboxStatus.SENT));
+        stats.put("merged", outboxMessageRepository.countByStatus(OutboxStatus.MERGED));
+
+        LocalDateTime oldest = outboxMessageRepository.findOldestCreatedAt(OutboxStatus.PENDING);
+        stats.put("oldestPendingAgeSeconds",
+                oldest == null ? 0L : Math.max(0L, Duration.between(oldest, LocalDateTime.now()).getSeconds()));
+        stats.put("transport", mailDispatchEngine.getMetrics());
+        return stats;
+    }
+}
@@ -1,25 +1,36 @@
 package com.lodha.EcoSaathi.Service;
 
+import com.lodha.EcoSaathi.Dto.NearestAgent;
 import com.lodha.EcoSaathi.Entity.PickupPerson;
 import com.lodha.EcoSaathi.Repository.PickupPersonRepository;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class PickupPersonService {
 
+    public static final int MAX_NEAREST = 50;
+
     private final PickupPersonRepository pickupPersonRepository;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     private final EmailService emailService;
+    private final LiveLocationStore liveLocationStore;
 
-    public PickupPersonService(PickupPersonRepository pickupPersonRepository, EmailService emailService) {
+    public PickupPersonService(PickupPersonRepository pickupPersonRepository, EmailService emailService,
+                               LiveLocationStore liveLocationStore) {
         this.pickupPersonRepository = pickupPersonRepository;
         this.emailService = emailService;
+        this.liveLocationStore = liveLocationStore;
     }
 
     // ✅ CREATE: Add a new Pickup Person
+    @Transactional
     public PickupPerson addPickupPerson(PickupPerson pickupPerson) {
         if (pickupPerson.getName() == null || pickupPerson.getName().trim().isEmpty()) {
             throw new RuntimeException("Pickup person must have a name.");
@@ -94,6 +105,39 @@ public class PickupPersonService {
     public void deletePickupPerson(Long id) {
         PickupPerson existingPerson = getPickupPersonById(id);
         pickupPersonRepository.delete(existingPerson);
+        liveLocationStore.forget(id);
+    }
+
+    // ✅ NEAREST: k closest agents to a point, from the in-memory spatial index
+    public List<NearestAgent> findNearestAgents(double latitude, double longitude, int k) {
+        if (k < 1 || k > MAX_NEAREST) {
+            throw new RuntimeException("k must be between 1 and " + MAX_NEAREST + ".");
+        }
+        List<AgentSpatialIndex.Neighbor> neighbors = liveLocationStore.nearest(latitude, longitude, k);
+        Map<Long, PickupPerson> byId = new HashMap<>();
+        for (PickupPerson p : pickupPersonRepository.findAllById(
+                neighbors.stream().map(AgentSpatialIndex.Neighbor::agentId).toList())) {
+            byId.put(p.getId(), p);
+        }
+
+        List<NearestAgent> result = new ArrayList<>(neighbors.size());
+        for (AgentSpatialIndex.Neighbor n : neighbors) {
+            PickupPerson person = byId.get(n.agentId());
+            LiveLocationStore.Location location = liveLocationStore.get(n.agentId());
+            if (person == null || location == null) continue;
+            NearestAgent agent = new NearestAgent();
+            agent.setPickupPersonId(person.getId());
+            agent.setName(person.getName());
+            agent.setVehicleNumber(person.getVehicleNumber());
+            agent.setVehicleType(person.getVehicleType());
+            agent.setLatitude(location.latitude());
+            agent.setLongitude(location.longitude());
+            agent.setDistanceKm(Math.round(n.distanceKm() * 100) / 100.0);
+            agent.setEtaMinutes(RequestService.estimateMinutes(n.distanceKm()));
+            agent.setLocationUpdatedAt(location.updatedAt());
+            result.add(agent);
+        }
+        return result;
     }
 
     public PickupPerson save(PickupPerson person) {
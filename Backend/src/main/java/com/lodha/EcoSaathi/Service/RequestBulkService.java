@@ -0,0 +1,226 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Dto.BulkActionResult;
+import com.lodha.EcoSaathi.Entity.PickupPerson;
+import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import com.lodha.EcoSaathi.Entity.User;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Admin bulk approve / schedule.
+ *
+ * All rows are loaded with one query, checked against the transition table,
+ * and updated in one transaction; Hibernate sends the version-checked UPDATEs
+ * as a JDBC batch. If any row was changed concurrently the batch rolls back and
+ * the ids are retried one by one through the normal compare-and-set path, so
+ * every id still gets its own result. Users get one grouped notification.
+ */
+@Service
+public class RequestBulkService {
+
+    public static final int MAX_BULK_SIZE = 500;
+
+    private final RequestRepository requestRepository;
+    private final RequestService requestService;
+    private final PickupPersonService pickupPersonService;
+    private final RequestStatsService requestStatsService;
+    private final EmailService emailService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    public RequestBulkService(RequestRepository requestRepository,
+                              RequestService requestService,
+                              PickupPersonService pickupPersonService,
+                              RequestStatsService requestStatsService,
+                              EmailService emailService,
+                              NotificationService notificationService,
+                              PlatformTransactionManager transactionManager) {
+        this.requestRepository = requestRepository;
+        this.requestService = requestService;
+        this.pickupPersonService = pickupPersonService;
+        this.requestStatsService = requestStatsService;
+        this.emailService = emailService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<BulkActionResult> bulkApprove(List<Long> ids) {
+        List<Long> uniqueIds = validate(ids);
+
+        Outcome outcome;
+        try {
+            // Emails/notifications are written in the same transaction (outbox), so they exist iff the batch commits
+            outcome = transactionTemplate.execute(tx -> {
+                Outcome o = applyBatch(uniqueIds, RequestStatus.APPROVED, r -> { });
+                announceApproved(o);
+                return o;
+            });
+        } catch (ObjectOptimisticLockingFailureException raced) {
+            return retryOneByOne(uniqueIds, id -> requestService.approveRequest(id));
+        }
+
+        return outcome.results;
+    }
+
+    public List<BulkActionResult> bulkSchedule(List<Long> ids, LocalDateTime scheduledTime, Long pickupPersonId) {
+        List<Long> uniqueIds = validate(ids);
+        if (scheduledTime == null) {
+            throw new RuntimeException("Scheduled time is required.");
+        }
+        PickupPerson pickupPerson = pickupPersonService.getPickupPersonById(pickupPersonId);
+
+        Outcome outcome;
+        try {
+            outcome = transactionTemplate.execute(tx -> {
+                Outcome o = applyBatch(uniqueIds, RequestStatus.SCHEDULED, r -> {
+                    r.setAssignedPickupPerson(pickupPerson);
+                    r.setPickupPersonAssigned(true);
+                    r.setScheduledTime(scheduledTime);
+                });
+                announceScheduled(o, pickupPerson, scheduledTime);
+                return o;
+            });
+        } catch (ObjectOptimisticLockingFailureException raced) {
+            return retryOneByOne(uniqueIds, id -> requestService.scheduleRequest(id, scheduledTime, pickupPersonId));
+        }
+
+        return outcome.results;
+    }
+
+    // ---------------------------------------------------------------
+    // HELPERS
+    // ---------------------------------------------------------------
+
+    private void announceApproved(Outcome outcome) {
+        for (Request r : outcome.changed) {
+            try {
+                User user = r.getUser();
+                emailService.sendRequestStatusUpdateEmail(
+                        user.getEmail(),
+                        user.getFirstName() + " " + user.getLastName(),
+                        r.getId(),
+                        outcome.oldStatus.get(r.getId()).name(),
+                        RequestStatus.APPROVED.name()
+                );
+            } catch (Exception e) { e.printStackTrace(); }
+        }
+        notifyGrouped(outcome.changed, (count, idList) -> count == 1
+                ? "Great News! Your Request " + idList + " is APPROVED."
+                : "Great News! Your Requests " + idList + " are APPROVED.", "SUCCESS");
+    }
+
+    private void announceScheduled(Outcome outcome, PickupPerson pickupPerson, LocalDateTime scheduledTime) {
+        for (Request r : outcome.changed) {
+            User user = r.getUser();
+            try {
+                emailService.sendRequestStatusUpdateEmail(
+                        user.getEmail(),
+                        user.getFirstName() + " " + user.getLastName(),
+                        r.getId(),
+                        outcome.oldStatus.get(r.getId()).name(),
+                        RequestStatus.SCHEDULED.name()
+                );
+                emailService.sendPickupAssignmentEmail(
+                        user.getEmail(),
+                        pickupPerson.getName(),
+                        pickupPerson.getVehicleNumber(),
+                        pickupPerson.getVehicleType(),
+                        r.getId(),
+                        scheduledTime
+                );
+            } catch (Exception e) { e.printStackTrace(); }
+        }
+        notifyGrouped(outcome.changed, (count, idList) -> count == 1
+                ? "Pickup Scheduled for Request " + idList + "! Check email for vehicle details."
+                : "Pickups Scheduled for Requests " + idList + "! Check email for vehicle details.", "INFO");
+    }
+
+    private static class Outcome {
+        final List<BulkActionResult> results = new ArrayList<>();
+        final List<Request> changed = new ArrayList<>();
+        final Map<Long, RequestStatus> oldStatus = new HashMap<>();
+    }
+
+    private List<Long> validate(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new RuntimeException("No request ids given.");
+        }
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        uniqueIds.removeIf(Objects::isNull);
+        if (uniqueIds.size() > MAX_BULK_SIZE) {
+            throw new RuntimeException("At most " + MAX_BULK_SIZE + " requests can be updated at once.");
+        }
+        return uniqueIds;
+    }
+
+    // Runs inside the transaction: entity changes are flushed as one JDBC batch on commit
+    private Outcome applyBatch(List<Long> ids, RequestStatus target, Consumer<Request> extraChanges) {
+        Map<Long, Request> byId = requestRepository.findAllWithUserByIdIn(ids).stream()
+                .collect(Collectors.toMap(Request::getId, r -> r));
+
+        Outcome outcome = new Outcome();
+        for (Long id : ids) {
+            Request r = byId.get(id);
+            if (r == null) {
+                outcome.results.add(BulkActionResult.failed(id, null, "Request not found with id: " + id));
+                continue;
+            }
+            RequestStatus current = r.getStatus();
+            if (!current.canTransitionTo(target)) {
+                outcome.results.add(BulkActionResult.failed(id, current,
+                        "Request #" + id + " cannot move from " + current + " to " + target + "."));
+                continue;
+            }
+            outcome.oldStatus.put(id, current);
+            r.setStatus(target);
+            extraChanges.accept(r);
+            outcome.changed.add(r);
+            outcome.results.add(BulkActionResult.ok(id, target));
+        }
+        requestRepository.flush();
+
+        // RequestStatsService applies these once the transaction commits
+        for (Request r : outcome.changed) {
+            requestStatsService.onTransition(r.getUser().getId(), outcome.oldStatus.get(r.getId()), target);
+        }
+        return outcome;
+    }
+
+    private List<BulkActionResult> retryOneByOne(List<Long> ids, Consumer<Long> action) {
+        List<BulkActionResult> results = new ArrayList<>();
+        for (Long id : ids) {
+            try {
+                action.accept(id);
+                results.add(BulkActionResult.ok(id, requestRepository.findStatusById(id)));
+            } catch (RuntimeException e) {
+                results.add(BulkActionResult.failed(id, requestRepository.findStatusById(id), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    // One notification per user, listing all of their requests touched by this bulk action
+    private void notifyGrouped(List<Request> changed, BiFunction<Integer, String, String> message, String type) {
+        Map<Long, List<Request>> byUser = new LinkedHashMap<>();
+        for (Request r : changed) {
+            byUser.computeIfAbsent(r.getUser().getId(), k -> new ArrayList<>()).add(r);
+        }
+        for (List<Request> requests : byUser.values()) {
+            String idList = requests.stream().map(r -> "#" + r.getId()).collect(Collectors.joining(", "));
+            try {
+                notificationService.createNotification(requests.get(0).getUser(), message.apply(requests.size(), idList), type);
+            } catch (Exception e) { e.printStackTrace(); }
+        }
+    }
+}
@@ -1,59 +1,72 @@
 package com.lodha.EcoSaathi.Service;
 
-import com.lodha.EcoSaathi.Config.FileStorageProperties;
+import com.lodha.EcoSaathi.Dto.BatchEta;
+import com.lodha.EcoSaathi.Dto.RequestPage;
 import com.lodha.EcoSaathi.Entity.Request;
 import com.lodha.EcoSaathi.Entity.PickupPerson;
+import com.lodha.EcoSaathi.Entity.RequestStatus;
 import com.lodha.EcoSaathi.Entity.User;
 import com.lodha.EcoSaathi.Repository.RequestRepository;
 import com.lodha.EcoSaathi.Repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.client.RestTemplate;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 
 @Service
 public class RequestService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_ETA_BATCH = 500;
+    static final double AVERAGE_SPEED_KMH = 30.0;
+    static final int BACKFILL_BATCH = 50;
+    private static final List<RequestStatus> BACKFILL_STATUSES =
+            List.of(RequestStatus.PENDING, RequestStatus.APPROVED, RequestStatus.SCHEDULED);
+
     private final RequestRepository requestRepository;
     private final UserRepository userRepository;
     private final PickupPersonService pickupPersonService;
-    private final FileStorageProperties fileStorageProperties;
+    private final FileStorageService fileStorageService;
+    private final ImageDerivativeService imageDerivativeService;
     private final EmailService emailService;
     // ✅ NEW: Notification Service
     private final NotificationService notificationService;
+    private final RequestStatsService requestStatsService;
+    private final GeocodingService geocodingService;
+    private final RequestStateMachine requestStateMachine;
+
+    // Backfill position; wraps to 0 so addresses that failed get another try later
+    private volatile long backfillAfterId = 0;
 
     public RequestService(RequestRepository requestRepository,
                           UserRepository userRepository,
-                          FileStorageProperties fileStorageProperties,
+                          FileStorageService fileStorageService,
+                          ImageDerivativeService imageDerivativeService,
                           PickupPersonService pickupPersonService,
                           EmailService emailService,
-                          NotificationService notificationService) {
+                          NotificationService notificationService,
+                          RequestStatsService requestStatsService,
+                          GeocodingService geocodingService,
+                          RequestStateMachine requestStateMachine) {
         this.requestRepository = requestRepository;
         this.userRepository = userRepository;
-        this.fileStorageProperties = fileStorageProperties;
+        this.fileStorageService = fileStorageService;
+        this.imageDerivativeService = imageDerivativeService;
         this.pickupPersonService = pickupPersonService;
         this.emailService = emailService;
         this.notificationService = notificationService;
-
-        try {
-            Path fileStorageLocation = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
-            Files.createDirectories(fileStorageLocation);
-        } catch (Exception ex) {
-            System.err.println("RequestService: Could not ensure file storage directory exists.");
-        }
+        this.requestStatsService = requestStatsService;
+        this.geocodingService = geocodingService;
+        this.requestStateMachine = requestStateMachine;
     }
 
     // ---------------------------------------------------------------
-    // HELPER METHODS (OTP, FILE UPLOAD & GEOCODING)
+    // HELPER METHODS (OTP & FILE UPLOAD)
     // ---------------------------------------------------------------
 
     private String generateOTP() {
@@ -62,52 +75,10 @@ public class RequestService {
         return String.valueOf(number);
     }
 
-    private double[] getCoordinatesFromAddress(String address) {
-        if (address == null || address.trim().isEmpty()) {
-            return new double[]{0.0, 0.0};
-        }
-        try {
-            String url = "https://nominatim.openstreetmap.org/search?q=" +
-                    address.replace(" ", "+") + "&format=json&limit=1";
-
-            RestTemplate restTemplate = new RestTemplate();
-            String response = restTemplate.getForObject(url, String.class);
-
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(response);
-
-            if (root.isArray() && root.size() > 0) {
-                double lat = root.get(0).get("lat").asDouble();
-                double lon = root.get(0).get("lon").asDouble();
-                return new double[]{lat, lon};
-            }
-        } catch (Exception e) {
-            System.err.println("Geocoding failed for address: " + address + " | Error: " + e.getMessage());
-        }
-        return new double[]{0.0, 0.0};
-    }
-
-    private List<String> saveMultipleFiles(List<MultipartFile> files) {
+    private List<String> toPhotoUrls(List<String> keys) {
         List<String> fileUrls = new ArrayList<>();
-
-        for (MultipartFile file : files) {
-            if (file.isEmpty()) continue;
-            try {
-                String originalFileName = file.getOriginalFilename();
-                String fileExtension = "";
-                int dotIndex = originalFileName.lastIndexOf('.');
-                if (dotIndex > 0) {
-                    fileExtension = originalFileName.substring(dotIndex);
-                }
-                String fileName = UUID.randomUUID().toString() + fileExtension;
-                Path targetLocation = Paths.get(fileStorageProperties.getUploadDir()).resolve(fileName);
-
-                Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-                fileUrls.add("http://localhost:8080/images/" + fileName);
-            } catch (Exception ex) {
-                System.err.println("Multiple File Storage Error: " + ex.getMessage());
-                throw new RuntimeException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
-            }
+        for (String key : keys) {
+            fileUrls.add("http://localhost:8080/images/" + key);
         }
         return fileUrls;
     }
@@ -117,53 +88,25 @@ public class RequestService {
     // ---------------------------------------------------------------
 
     public Map<String, Long> getUserStats(Long userId) {
-        List<Request> userRequests = requestRepository.findByUserId(userId);
-
-        long total = userRequests.size();
-        long pending = userRequests.stream().filter(r -> "PENDING".equals(r.getStatus())).count();
-        long approved = userRequests.stream().filter(r -> "APPROVED".equals(r.getStatus())).count();
-        long completed = userRequests.stream().filter(r -> "COMPLETED".equals(r.getStatus())).count();
-
-        Map<String, Long> stats = new HashMap<>();
-        stats.put("total", total);
-        stats.put("pending", pending);
-        stats.put("approved", approved);
-        stats.put("completed", completed);
-        return stats;
+        return requestStatsService.getUserStats(userId);
     }
 
     // 🔹 NEW: ADMIN DASHBOARD STATS (for chatbot / admin page)
     public Map<String, Long> getAdminStats() {
-        List<Request> all = requestRepository.findAll();
-
-        long total = all.size();
-        long pending = all.stream().filter(r -> "PENDING".equals(r.getStatus())).count();
-        long approved = all.stream().filter(r -> "APPROVED".equals(r.getStatus())).count();
-        long scheduled = all.stream().filter(r -> "SCHEDULED".equals(r.getStatus())).count();
-        long completed = all.stream().filter(r -> "COMPLETED".equals(r.getStatus())).count();
-        long rejected = all.stream().filter(r -> "REJECTED".equals(r.getStatus())).count();
-
-        Map<String, Long> stats = new HashMap<>();
-        stats.put("totalRequests", total);
-        stats.put("pendingRequests", pending);
-        stats.put("approvedRequests", approved);
-        stats.put("scheduledRequests", scheduled);
-        stats.put("completedRequests", completed);
-        stats.put("rejectedRequests", rejected);
-        return stats;
+        return requestStatsService.getAdminStats();
     }
 
     // ---------------------------------------------------------------
     // USER ACTIONS
     // ---------------------------------------------------------------
 
+    @Transactional
     public Request submitRequestWithPhotos(Long userId, Request requestDetails, List<MultipartFile> files) {
         if (files.isEmpty()) {
             throw new RuntimeException("At least one photo must be uploaded for the request.");
         }
 
-        List<String> photoUrls = saveMultipleFiles(files);
-
+        // Validate and build the row first, so a bad request never writes any blob
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found to submit request."));
 
@@ -173,12 +116,27 @@ public class RequestService {
             requestDetails.setPickupLocation(user.getPickupAddress());
         }
 
-        requestDetails.setPhotoUrls(photoUrls);
-        requestDetails.setStatus("PENDING");
+        // 📍 Cache hits only: no geocoder round trip while this transaction holds a connection.
+        // A miss is saved without coordinates and filled in by backfillCoordinates.
+        double[] coords = geocodingService.peek(requestDetails.getPickupLocation());
+        if (coords != null) {
+            requestDetails.setLatitude(coords[0]);
+            requestDetails.setLongitude(coords[1]);
+        }
+
+        requestDetails.setStatus(RequestStatus.PENDING);
 
         requestDetails.setPickupOtp(generateOTP());
 
+        // New blobs are deleted again if anything below rolls the transaction back
+        List<String> photoKeys = fileStorageService.storeAll(files, this::isUploadReferenced);
+        requestDetails.setPhotoUrls(toPhotoUrls(photoKeys));
+
         Request savedRequest = requestRepository.save(requestDetails);
+        requestStatsService.onCreated(user.getId(), savedRequest.getStatus());
+
+        // 🖼️ Thumbnails / medium variants are built in the background
+        imageDerivativeService.generateAsync(photoKeys);
 
         try {
             // 📧 EMAIL
@@ -225,11 +183,9 @@ public class RequestService {
             return errorResult;
         }
 
-        double[] userCoords = getCoordinatesFromAddress(request.getPickupLocation());
-        double userLat = userCoords[0];
-        double userLng = userCoords[1];
+        double[] userCoords = getRequestCoordinates(request);
 
-        if (userLat == 0.0 || userLng == 0.0) {
+        if (userCoords == null) {
             Map<String, Object> result = new HashMap<>();
             result.put("pickupLat", pickupLat);
             result.put("pickupLng", pickupLng);
@@ -240,19 +196,10 @@ public class RequestService {
             return result;
         }
 
+        double userLat = userCoords[0];
+        double userLng = userCoords[1];
         double distanceKm = calculateHaversineDistance(pickupLat, pickupLng, userLat, userLng);
-
-        double timeHours = distanceKm / 30.0;
-        int timeMinutes = (int) (timeHours * 60);
-
-        String timeString;
-        if (timeMinutes < 1) {
-            timeString = "Arriving Now";
-        } else if (timeMinutes > 60) {
-            timeString = String.format("%d hr %d min", timeMinutes / 60, timeMinutes % 60);
-        } else {
-            timeString = timeMinutes + " mins";
-        }
+        String timeString = formatEta(estimateMinutes(distanceKm));
 
         Map<String, Object> result = new HashMap<>();
         result.put("distanceKm", String.format("%.2f", distanceKm));
@@ -265,7 +212,143 @@ public class RequestService {
         return result;
     }
 
-    private double calculateHaversineDistance(double lat1, double lon1, double lat2, double lon2) {
+    // 🔹 Batch ETA: one projection query, then a single pass over primitive arrays
+    public BatchEta calculateEtas(double fromLat, double fromLng, List<Long> requestIds) {
+        if (requestIds == null || requestIds.isEmpty()) {
+            throw new RuntimeException("No request ids provided.");
+        }
+        if (requestIds.size() > MAX_ETA_BATCH) {
+            throw new RuntimeException("At most " + MAX_ETA_BATCH + " requests per ETA batch.");
+        }
+        if (fromLat < -90 || fromLat > 90 || fromLng < -180 || fromLng > 180) {
+            throw new RuntimeException("Invalid coordinates.");
+        }
+
+        int n = requestIds.size();
+        long[] ids = new long[n];
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        boolean[] located = new boolean[n];
+        Map<Long, Integer> slot = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            ids[i] = requestIds.get(i);
+            slot.putIfAbsent(ids[i], i);
+        }
+
+        for (Object[] row : requestRepository.findCoordinatesByIdIn(slot.keySet())) {
+            Long id = (Long) row[0];
+            Double rowLat = (Double) row[1], rowLng = (Double) row[2];
+            // Rows without stored coordinates stay -1 until backfillCoordinates has resolved them
+            if (rowLat == null || rowLng == null) continue;
+            int i = slot.get(id);
+            lat[i] = rowLat;
+            lng[i] = rowLng;
+            located[i] = true;
+        }
+        // Duplicate ids share the first occurrence's position
+        for (int i = 0; i < n; i++) {
+            int first = slot.get(ids[i]);
+            if (first != i) {
+                lat[i] = lat[first];
+                lng[i] = lng[first];
+                located[i] = located[first];
+            }
+        }
+
+        double[] distanceKm = new double[n];
+        int[] etaMinutes = new int[n];
+        haversineKm(fromLat, fromLng, lat, lng, distanceKm, n);
+        for (int i = 0; i < n; i++) {
+            if (located[i]) {
+                etaMinutes[i] = estimateMinutes(distanceKm[i]);
+            } else {
+                distanceKm[i] = -1;
+                etaMinutes[i] = -1;
+            }
+        }
+
+        BatchEta result = new BatchEta();
+        result.setFromLatitude(fromLat);
+        result.setFromLongitude(fromLng);
+        result.setRequestIds(ids);
+        result.setDistanceKm(distanceKm);
+        result.setEtaMinutes(etaMinutes);
+        return result;
+    }
+
+    /**
+     * Same formula as calculateHaversineDistance for n targets at once: the
+     * origin's radians and cosine are computed once and nothing is allocated.
+     */
+    public static void haversineKm(double fromLat, double fromLng, double[] lat, double[] lng, double[] out, int n) {
+        final double r = 6371;
+        final double toRad = Math.PI / 180;
+        double cosFrom = Math.cos(fromLat * toRad);
+        for (int i = 0; i < n; i++) {
+            double sinLat = Math.sin((lat[i] - fromLat) * toRad / 2);
+            double sinLng = Math.sin((lng[i] - fromLng) * toRad / 2);
+            double a = sinLat * sinLat + cosFrom * Math.cos(lat[i] * toRad) * sinLng * sinLng;
+            out[i] = r * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        }
+    }
+
+    // Travel time at the assumed average city speed
+    public static int estimateMinutes(double distanceKm) {
+        return (int) (distanceKm / AVERAGE_SPEED_KMH * 60);
+    }
+
+    public static String formatEta(int timeMinutes) {
+        if (timeMinutes < 1) {
+            return "Arriving Now";
+        } else if (timeMinutes > 60) {
+            return String.format("%d hr %d min", timeMinutes / 60, timeMinutes % 60);
+        }
+        return timeMinutes + " mins";
+    }
+
+    // A blob left by a failed upload batch stays if any row points at the same bytes
+    private boolean isUploadReferenced(String key) {
+        String path = "/images/" + FileStorageService.blobKey(key);
+        // Photo URLs are absolute (host first), profile pictures are stored as the path
+        return requestRepository.existsPhotoUrlLike("%" + path + "%")
+                || userRepository.existsByProfilePictureUrlStartingWith(path);
+    }
+
+    // Stored coordinates first; older rows without them are geocoded (cached) once and backfilled
+    public double[] getRequestCoordinates(Request request) {
+        if (request.getLatitude() != null && request.getLongitude() != null) {
+            return new double[]{request.getLatitude(), request.getLongitude()};
+        }
+        double[] coords = geocodingService.resolve(request.getPickupLocation());
+        if (coords != null) {
+            request.setLatitude(coords[0]);
+            request.setLongitude(coords[1]);
+            requestRepository.updateCoordinates(request.getId(), coords[0], coords[1]);
+        }
+        return coords;
+    }
+
+    // ✅ Geocodes open rows that have no coordinates yet, off the request threads, so
+    // batch callers (dispatch) can rely on stored coordinates alone
+    @Scheduled(fixedDelayString = "${app.geocode.backfill-interval-ms:300000}",
+            initialDelayString = "${app.geocode.backfill-interval-ms:300000}")
+    public int backfillCoordinates() {
+        List<Request> batch = requestRepository.findMissingCoordinates(backfillAfterId, BACKFILL_STATUSES,
+                PageRequest.of(0, BACKFILL_BATCH));
+        if (batch.isEmpty()) {
+            backfillAfterId = 0;
+            return 0;
+        }
+        int resolved = 0;
+        for (Request request : batch) {
+            if (getRequestCoordinates(request) != null) resolved++;
+        }
+        backfillAfterId = batch.get(batch.size() - 1).getId();
+        if (resolved > 0) System.out.println("📍 Backfilled coordinates for " + resolved + " requests");
+        return resolved;
+    }
+
+    public static double calculateHaversineDistance(double lat1, double lon1, double lat2, double lon2) {
         final int R = 6371;
         double dLat = Math.toRadians(lat2 - lat1);
         double dLon = Math.toRadians(lon2 - lon1);
@@ -276,10 +359,11 @@ public class RequestService {
         return R * c;
     }
 
+    @Transactional
     public Request completeRequestWithOtp(Long requestId, String enteredOtp) {
         Request request = findById(requestId);
 
-        if (!"SCHEDULED".equals(request.getStatus())) {
+        if (request.getStatus() != RequestStatus.SCHEDULED) {
             throw new RuntimeException("Only SCHEDULED requests can be marked as COMPLETED.");
         }
 
@@ -287,9 +371,10 @@ public class RequestService {
             throw new RuntimeException("❌ Invalid OTP! Verification failed.");
         }
 
-        String oldStatus = request.getStatus();
-        request.setStatus("COMPLETED");
-        Request savedRequest = requestRepository.save(request);
+        RequestStatus oldStatus = request.getStatus();
+        requestStateMachine.transition(requestId, oldStatus, RequestStatus.COMPLETED);
+        Request savedRequest = findById(requestId);
+        requestStatsService.onTransition(savedRequest.getUser().getId(), oldStatus, RequestStatus.COMPLETED);
 
         try {
             User user = savedRequest.getUser();
@@ -298,8 +383,8 @@ public class RequestService {
                     user.getEmail(),
                     user.getFirstName() + " " + user.getLastName(),
                     savedRequest.getId(),
-                    oldStatus,
-                    "COMPLETED"
+                    oldStatus.name(),
+                    RequestStatus.COMPLETED.name()
             );
 
             // 🔔 NOTIFICATION
@@ -322,9 +407,73 @@ public class RequestService {
     // ---------------------------------------------------------------
 
     public List<Request> getAllPendingRequests() {
-        return requestRepository.findAll().stream()
-                .filter(r -> "PENDING".equals(r.getStatus()))
-                .collect(Collectors.toList());
+        return requestRepository.findByStatus(RequestStatus.PENDING);
+    }
+
+    // 🔹 Keyset-paginated listing for the admin dashboard.
+    // Filters run in the DB; the total is only counted when the caller asks for it.
+    public RequestPage getRequestPage(String status, String deviceType,
+                                      LocalDateTime from, LocalDateTime to,
+                                      String cursor, int size, boolean includeTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            Object[] decoded = decodeCursor(cursor);
+            cursorCreatedAt = (LocalDateTime) decoded[0];
+            cursorId = (Long) decoded[1];
+        }
+
+        RequestStatus statusFilter = parseStatus(blankToNull(status));
+        String deviceTypeFilter = blankToNull(deviceType);
+
+        // Fetch one extra row to know whether another page exists without counting
+        List<Request> rows = requestRepository.findPage(statusFilter, deviceTypeFilter, from, to,
+                cursorCreatedAt, cursorId, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Request> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        RequestPage page = new RequestPage();
+        page.setItems(items);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            Request last = items.get(items.size() - 1);
+            page.setNextCursor(encodeCursor(last.getCreatedAt(), last.getId()));
+        }
+        if (includeTotal) {
+            page.setTotalCount(requestRepository.countFiltered(statusFilter, deviceTypeFilter, from, to));
+        }
+        return page;
+    }
+
+    private RequestStatus parseStatus(String status) {
+        if (status == null) return null;
+        try {
+            return RequestStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown request status: " + status);
+        }
+    }
+
+    private String blankToNull(String value) {
+        return (value == null || value.isBlank()) ? null : value.trim();
+    }
+
+    private String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Object[]{LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1))};
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid page cursor: " + cursor);
+        }
     }
 
     public List<Request> getAllRequests() {
@@ -336,16 +485,18 @@ public class RequestService {
                 .orElseThrow(() -> new RuntimeException("Request not found with id: " + requestId));
     }
 
+    @Transactional
     public Request approveRequest(Long requestId) {
         Request request = findById(requestId);
 
-        if (!"PENDING".equals(request.getStatus())) {
+        if (!request.getStatus().canTransitionTo(RequestStatus.APPROVED)) {
             throw new RuntimeException("Only PENDING requests can be APPROVED.");
         }
 
-        String oldStatus = request.getStatus();
-        request.setStatus("APPROVED");
-        Request savedRequest = requestRepository.save(request);
+        RequestStatus oldStatus = request.getStatus();
+        requestStateMachine.transition(requestId, oldStatus, RequestStatus.APPROVED);
+        Request savedRequest = findById(requestId);
+        requestStatsService.onTransition(savedRequest.getUser().getId(), oldStatus, RequestStatus.APPROVED);
 
         try {
             User user = savedRequest.getUser();
@@ -354,8 +505,8 @@ public class RequestService {
                     user.getEmail(),
                     user.getFirstName() + " " + user.getLastName(),
                     savedRequest.getId(),
-                    oldStatus,
-                    "APPROVED"
+                    oldStatus.name(),
+                    RequestStatus.APPROVED.name()
             );
 
             // 🔔 NOTIFICATION
@@ -370,16 +521,18 @@ public class RequestService {
         return savedRequest;
     }
 
+    @Transactional
     public Request rejectRequest(Long requestId) {
         Request request = findById(requestId);
 
-        if (!"PENDING".equals(request.getStatus()) && !"APPROVED".equals(request.getStatus())) {
+        if (!request.getStatus().canTransitionTo(RequestStatus.REJECTED)) {
             throw new RuntimeException("Only PENDING or APPROVED requests can be REJECTED.");
         }
 
-        String oldStatus = request.getStatus();
-        request.setStatus("REJECTED");
-        Request savedRequest = requestRepository.save(request);
+        RequestStatus oldStatus = request.getStatus();
+        requestStateMachine.transition(requestId, oldStatus, RequestStatus.REJECTED);
+        Request savedRequest = findById(requestId);
+        requestStatsService.onTransition(savedRequest.getUser().getId(), oldStatus, RequestStatus.REJECTED);
 
         try {
             User user = savedRequest.getUser();
@@ -388,8 +541,8 @@ public class RequestService {
                     user.getEmail(),
                     user.getFirstName() + " " + user.getLastName(),
                     savedRequest.getId(),
-                    oldStatus,
-                    "REJECTED"
+                    oldStatus.name(),
+                    RequestStatus.REJECTED.name()
             );
 
             // 🔔 NOTIFICATION
@@ -404,21 +557,20 @@ public class RequestService {
         return savedRequest;
     }
 
+    @Transactional
     public Request scheduleRequest(Long requestId, LocalDateTime scheduledTime, Long pickupPersonId) {
         Request request = findById(requestId);
 
-        if (!"APPROVED".equals(request.getStatus())) {
+        if (!request.getStatus().canTransitionTo(RequestStatus.SCHEDULED)) {
             throw new RuntimeException("Cannot schedule a request that is not APPROVED.");
         }
 
         PickupPerson pickupPerson = pickupPersonService.getPickupPersonById(pickupPersonId);
 
-        String oldStatus = request.getStatus();
-        request.setAssignedPickupPerson(pickupPerson);
-        request.setPickupPersonAssigned(true);
-        request.setScheduledTime(scheduledTime);
-        request.setStatus("SCHEDULED");
-        Request savedRequest = requestRepository.save(request);
+        RequestStatus oldStatus = request.getStatus();
+        requestStateMachine.schedule(requestId, oldStatus, pickupPerson, scheduledTime);
+        Request savedRequest = findById(requestId);
+        requestStatsService.onTransition(savedRequest.getUser().getId(), oldStatus, RequestStatus.SCHEDULED);
 
         User user = savedRequest.getUser();
 
@@ -429,8 +581,8 @@ public class RequestService {
                     user.getEmail(),
                     user.getFirstName() + " " + user.getLastName(),
                     savedRequest.getId(),
-                    oldStatus,
-                    "SCHEDULED"
+                    oldStatus.name(),
+                    RequestStatus.SCHEDULED.name()
             );
         } catch (Exception e) { e.printStackTrace(); }
 
@@ -458,6 +610,7 @@ public class RequestService {
         return savedRequest;
     }
 
+    @Transactional
     public Request completeRequest(Long requestId) {
         Request request = findById(requestId);
 
@@ -465,7 +618,11 @@ public class RequestService {
             return completeRequestWithOtp(requestId, request.getPickupOtp());
         }
 
-        request.setStatus("COMPLETED");
-        return requestRepository.save(request);
+        // Legacy rows without an OTP: same transition rules, just no OTP check
+        RequestStatus oldStatus = request.getStatus();
+        requestStateMachine.transition(requestId, oldStatus, RequestStatus.COMPLETED);
+        Request savedRequest = findById(requestId);
+        requestStatsService.onTransition(savedRequest.getUser().getId(), oldStatus, RequestStatus.COMPLETED);
+        return savedRequest;
     }
 }
\ No newline at end of file
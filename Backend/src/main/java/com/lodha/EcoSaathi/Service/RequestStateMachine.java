@@ -0,0 +1,53 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.PickupPerson;
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Applies request status transitions from the {@link RequestStatus} table.
+ *
+ * Every transition is a single {@code UPDATE ... WHERE id = ? AND status = ?}.
+ * When two actors race, exactly one update matches; the other gets a clear
+ * conflict error instead of silently overwriting the first.
+ */
+@Service
+public class RequestStateMachine {
+
+    private final RequestRepository requestRepository;
+
+    public RequestStateMachine(RequestRepository requestRepository) {
+        this.requestRepository = requestRepository;
+    }
+
+    public void transition(Long requestId, RequestStatus from, RequestStatus to) {
+        checkAllowed(requestId, from, to);
+        int updated = requestRepository.compareAndSetStatus(requestId, from, to);
+        if (updated == 0) throw conflict(requestId, from, to);
+    }
+
+    public void schedule(Long requestId, RequestStatus from, PickupPerson pickupPerson, LocalDateTime scheduledTime) {
+        checkAllowed(requestId, from, RequestStatus.SCHEDULED);
+        int updated = requestRepository.compareAndSetScheduled(
+                requestId, from, RequestStatus.SCHEDULED, pickupPerson, scheduledTime);
+        if (updated == 0) throw conflict(requestId, from, RequestStatus.SCHEDULED);
+    }
+
+    private void checkAllowed(Long requestId, RequestStatus from, RequestStatus to) {
+        if (from == null || !from.canTransitionTo(to)) {
+            throw new RuntimeException("Request #" + requestId + " cannot move from " + from + " to " + to + ".");
+        }
+    }
+
+    private RuntimeException conflict(Long requestId, RequestStatus from, RequestStatus to) {
+        RequestStatus current = requestRepository.findStatusById(requestId);
+        if (current == null) {
+            return new RuntimeException("Request not found with id: " + requestId);
+        }
+        return new RuntimeException("Request #" + requestId + " was changed concurrently (now " + current
+                + "); could not move it from " + from + " to " + to + ".");
+    }
+}
@@ -0,0 +1,179 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory request counters per status, globally and per user.
+ *
+ * Counters are seeded with a single GROUP BY query, then kept current by
+ * RequestService on every create / status transition. Per-user counters are
+ * loaded lazily on first read. A periodic reconcile reloads everything from
+ * the DB so any drift (e.g. a transition racing a lazy load) heals itself.
+ * Updates made inside a transaction are applied only once it commits, so a
+ * rollback (lost CAS, later exception) never moves the counters.
+ */
+@Service
+public class RequestStatsService {
+
+    private final RequestRepository requestRepository;
+
+    private volatile Map<RequestStatus, LongAdder> globalCounts;
+    private final ConcurrentHashMap<Long, Map<RequestStatus, LongAdder>> userCounts = new ConcurrentHashMap<>();
+
+    public RequestStatsService(RequestRepository requestRepository) {
+        this.requestRepository = requestRepository;
+    }
+
+    // ---------------------------------------------------------------
+    // READS (O(1), no entity loading)
+    // ---------------------------------------------------------------
+
+    public Map<String, Long> getAdminStats() {
+        Map<RequestStatus, LongAdder> counts = global();
+
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("totalRequests", total(counts));
+        stats.put("pendingRequests", count(counts, RequestStatus.PENDING));
+        stats.put("approvedRequests", count(counts, RequestStatus.APPROVED));
+        stats.put("scheduledRequests", count(counts, RequestStatus.SCHEDULED));
+        stats.put("completedRequests", count(counts, RequestStatus.COMPLETED));
+        stats.put("rejectedRequests", count(counts, RequestStatus.REJECTED));
+        return stats;
+    }
+
+    public Map<String, Long> getUserStats(Long userId) {
+        Map<RequestStatus, LongAdder> counts = userCounts.computeIfAbsent(userId,
+                id -> toCounters(requestRepository.countGroupByStatusForUser(id)));
+
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("total", total(counts));
+        stats.put("pending", count(counts, RequestStatus.PENDING));
+        stats.put("approved", count(counts, RequestStatus.APPROVED));
+        stats.put("completed", count(counts, RequestStatus.COMPLETED));
+        return stats;
+    }
+
+    // ---------------------------------------------------------------
+    // UPDATES (called by RequestService after a successful save; applied after commit)
+    // ---------------------------------------------------------------
+
+    public void onCreated(Long userId, RequestStatus status) {
+        afterCommit(() -> {
+            increment(global(), status);
+            Map<RequestStatus, LongAdder> counts = userCounts.get(userId);
+            if (counts != null) increment(counts, status);
+        });
+    }
+
+    public void onTransition(Long userId, RequestStatus fromStatus, RequestStatus toStatus) {
+        if (fromStatus == toStatus) return;
+
+        afterCommit(() -> {
+            Map<RequestStatus, LongAdder> counts = global();
+            decrement(counts, fromStatus);
+            increment(counts, toStatus);
+
+            Map<RequestStatus, LongAdder> forUser = userCounts.get(userId);
+            if (forUser != null) {
+                decrement(forUser, fromStatus);
+                increment(forUser, toStatus);
+            }
+        });
+    }
+
+    // Requests were removed in bulk (e.g. user deletion): drop the user's counters and recount
+    public void onUserRequestsDeleted(Long userId) {
+        afterCommit(() -> {
+            userCounts.remove(userId);
+            reconcile();
+        });
+    }
+
+    // ---------------------------------------------------------------
+    // RECONCILE
+    // ---------------------------------------------------------------
+
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        globalCounts = toCounters(requestRepository.countGroupByStatus());
+        // Per-user counters reload lazily on next read
+        userCounts.clear();
+    }
+
+    // ---------------------------------------------------------------
+    // HELPERS
+    // ---------------------------------------------------------------
+
+    // Counters must only reflect committed changes
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Map<RequestStatus, LongAdder> global() {
+        Map<RequestStatus, LongAdder> counts = globalCounts;
+        if (counts == null) {
+            synchronized (this) {
+                counts = globalCounts;
+                if (counts == null) {
+                    counts = toCounters(requestRepository.countGroupByStatus());
+                    globalCounts = counts;
+                }
+            }
+        }
+        return counts;
+    }
+
+    // One adder per status, created up front: the map is never resized afterwards, so it is safe to share
+    private Map<RequestStatus, LongAdder> toCounters(List<Object[]> rows) {
+        Map<RequestStatus, LongAdder> counts = new EnumMap<>(RequestStatus.class);
+        for (RequestStatus status : RequestStatus.values()) {
+            counts.put(status, new LongAdder());
+        }
+        for (Object[] row : rows) {
+            if (row[0] == null) continue;
+            counts.get((RequestStatus) row[0]).add(((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private void increment(Map<RequestStatus, LongAdder> counts, RequestStatus status) {
+        if (status != null) counts.get(status).increment();
+    }
+
+    private void decrement(Map<RequestStatus, LongAdder> counts, RequestStatus status) {
+        if (status != null) counts.get(status).decrement();
+    }
+
+    private long count(Map<RequestStatus, LongAdder> counts, RequestStatus status) {
+        LongAdder adder = counts.get(status);
+        return adder == null ? 0L : Math.max(0L, adder.sum());
+    }
+
+    private long total(Map<RequestStatus, LongAdder> counts) {
+        long total = 0;
+        for (LongAdder adder : counts.values()) total += adder.sum();
+        return Math.max(0L, total);
+    }
+}
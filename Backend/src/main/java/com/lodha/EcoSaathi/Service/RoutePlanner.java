@@ -0,0 +1,178 @@
+package com.lodha.EcoSaathi.Service;
+
+/**
+ * Visit order for one agent's stops: an open path that starts at the
+ * agent's position and ends at the last stop (no return trip).
+ *
+ * Builds a haversine distance matrix, seeds the order with nearest
+ * neighbour, then alternates 2-opt (reverse a stretch of the route) and
+ * Or-opt (move a run of 1-3 stops elsewhere, optionally reversed) until
+ * neither finds an improvement. Stateless and thread-safe.
+ */
+public final class RoutePlanner {
+
+    // Visit order as indexes into the input arrays, and the driven distance
+    public record Route(int[] order, double totalKm) { }
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_PASSES = 1000;
+
+    private RoutePlanner() {
+    }
+
+    /**
+     * @param startLat agent position, or null to let the route start at any stop
+     */
+    public static Route plan(Double startLat, Double startLng, double[] lat, double[] lng) {
+        int n = lat.length;
+        if (n == 0) return new Route(new int[0], 0);
+
+        // Node 0 is the start; stop i is node i + 1. A missing start is a free depot (distance 0 to all).
+        int size = n + 1;
+        double[] d = new double[size * size];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double km = RequestService.calculateHaversineDistance(lat[i], lng[i], lat[j], lng[j]);
+                d[(i + 1) * size + j + 1] = km;
+                d[(j + 1) * size + i + 1] = km;
+            }
+            double fromStart = startLat == null ? 0
+                    : RequestService.calculateHaversineDistance(startLat, startLng, lat[i], lng[i]);
+            d[i + 1] = fromStart;
+            d[(i + 1) * size] = fromStart;
+        }
+
+        int[] tour = nearestNeighbour(d, size);
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean improved = twoOpt(tour, d, size);
+            improved |= orOpt(tour, d, size);
+            if (!improved) break;
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = tour[i + 1] - 1;
+        return new Route(order, length(tour, d, size));
+    }
+
+    /** Distance driven when the stops are visited in the given order. */
+    public static double routeLength(Double startLat, Double startLng, double[] lat, double[] lng, int[] order) {
+        double km = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i == 0) {
+                if (startLat != null) {
+                    km += RequestService.calculateHaversineDistance(startLat, startLng, lat[order[0]], lng[order[0]]);
+                }
+            } else {
+                km += RequestService.calculateHaversineDistance(
+                        lat[order[i - 1]], lng[order[i - 1]], lat[order[i]], lng[order[i]]);
+            }
+        }
+        return km;
+    }
+
+    // ---------------------------------------------------------------
+    // HEURISTICS
+    // ---------------------------------------------------------------
+
+    private static int[] nearestNeighbour(double[] d, int size) {
+        int[] tour = new int[size];
+        boolean[] visited = new boolean[size];
+        visited[0] = true;
+        for (int pos = 1; pos < size; pos++) {
+            int from = tour[pos - 1];
+            int best = -1;
+            for (int j = 1; j < size; j++) {
+                if (!visited[j] && (best < 0 || d[from * size + j] < d[from * size + best])) best = j;
+            }
+            tour[pos] = best;
+            visited[best] = true;
+        }
+        return tour;
+    }
+
+    // Reverse tour[i+1..j] when that shortens the path; the last edge may be missing (open end)
+    private static boolean twoOpt(int[] tour, double[] d, int size) {
+        int last = size - 1;
+        boolean improved = false;
+        for (int i = 0; i < last - 1; i++) {
+            for (int j = i + 2; j <= last; j++) {
+                double before = d[tour[i] * size + tour[i + 1]] + (j < last ? d[tour[j] * size + tour[j + 1]] : 0);
+                double after = d[tour[i] * size + tour[j]] + (j < last ? d[tour[i + 1] * size + tour[j + 1]] : 0);
+                if (after < before - EPSILON) {
+                    reverse(tour, i + 1, j);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Move a run of 1-3 stops to another gap (as is or reversed) when that shortens the path
+    private static boolean orOpt(int[] tour, double[] d, int size) {
+        int last = size - 1;
+        boolean improved = false;
+        for (int len = 1; len <= 3; len++) {
+            for (int s = 1; s + len - 1 <= last; s++) {
+                int e = s + len - 1;
+                int first = tour[s], end = tour[e];
+                int prev = tour[s - 1];
+                boolean hasNext = e < last;
+                double removeGain = d[prev * size + first]
+                        + (hasNext ? d[end * size + tour[e + 1]] - d[prev * size + tour[e + 1]] : 0);
+
+                // Insert between tour[p] and tour[p+1] (or after the last stop), outside [s-1, e]
+                for (int p = 0; p <= last; p++) {
+                    if (p >= s - 1 && p <= e) continue;
+                    int a = tour[p];
+                    boolean hasB = p < last;
+                    int b = hasB ? tour[p + 1] : -1;
+                    double ab = hasB ? d[a * size + b] : 0;
+                    double forward = d[a * size + first] + (hasB ? d[end * size + b] : 0) - ab;
+                    double reversed = d[a * size + end] + (hasB ? d[first * size + b] : 0) - ab;
+                    double insertCost = Math.min(forward, reversed);
+                    if (insertCost < removeGain - EPSILON) {
+                        move(tour, s, e, p, reversed < forward);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    private static void move(int[] tour, int s, int e, int p, boolean reversed) {
+        int len = e - s + 1;
+        int[] segment = new int[len];
+        for (int i = 0; i < len; i++) segment[i] = tour[reversed ? e - i : s + i];
+
+        int[] rest = new int[tour.length - len];
+        int r = 0, insertAt = -1;
+        for (int i = 0; i < tour.length; i++) {
+            if (i >= s && i <= e) continue;
+            rest[r++] = tour[i];
+            if (i == p) insertAt = r;
+        }
+        int t = 0;
+        for (int i = 0; i < rest.length; i++) {
+            tour[t++] = rest[i];
+            if (i + 1 == insertAt) {
+                for (int x : segment) tour[t++] = x;
+            }
+        }
+    }
+
+    private static void reverse(int[] tour, int from, int to) {
+        while (from < to) {
+            int tmp = tour[from];
+            tour[from++] = tour[to];
+            tour[to--] = tmp;
+        }
+    }
+
+    private static double length(int[] tour, double[] d, int size) {
+        double km = 0;
+        for (int i = 0; i + 1 < tour.length; i++) km += d[tour[i] * size + tour[i + 1]];
+        return km;
+    }
+}
@@ -0,0 +1,147 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Dto.RoutePlan;
+import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Daily visit order for pickup agents.
+ *
+ * Loads the day's SCHEDULED requests in one query and hands each agent's
+ * stops to RoutePlanner. Only stored coordinates are used: stops without
+ * them are returned in unlocatedRequestIds until
+ * RequestService.backfillCoordinates has resolved their address. When
+ * planning the whole fleet the per-agent work runs in parallel on a
+ * dedicated fork-join pool; the DB work stays on the calling thread.
+ */
+@Service
+public class RoutePlanningService {
+
+    private final RequestRepository requestRepository;
+    private final LiveLocationStore liveLocationStore;
+    private final ForkJoinPool pool;
+
+    // One agent's input, resolved up front so planning is pure computation
+    private record AgentStops(Long pickupPersonId, LocalDate date, Double startLat, Double startLng,
+                              List<Request> located, double[] lat, double[] lng, List<Long> unlocated) { }
+
+    public RoutePlanningService(RequestRepository requestRepository,
+                                LiveLocationStore liveLocationStore,
+                                @Value("${app.routes.parallelism:0}") int parallelism) {
+        this.requestRepository = requestRepository;
+        this.liveLocationStore = liveLocationStore;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public RoutePlan planForAgent(Long pickupPersonId, LocalDate date) {
+        List<Request> requests = requestRepository.findScheduledBetween(RequestStatus.SCHEDULED, pickupPersonId,
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        return plan(prepare(pickupPersonId, date, requests));
+    }
+
+    public List<RoutePlan> planAll(LocalDate date) {
+        List<Request> requests = requestRepository.findScheduledBetween(RequestStatus.SCHEDULED, null,
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+
+        Map<Long, List<Request>> byAgent = new LinkedHashMap<>();
+        for (Request r : requests) {
+            byAgent.computeIfAbsent(r.getAssignedPickupPerson().getId(), k -> new ArrayList<>()).add(r);
+        }
+        List<AgentStops> inputs = new ArrayList<>(byAgent.size());
+        byAgent.forEach((agentId, stops) -> inputs.add(prepare(agentId, date, stops)));
+
+        try {
+            return pool.submit(() -> inputs.parallelStream().map(this::plan).toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while planning routes", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Route planning failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // ---------------------------------------------------------------
+    // HELPERS
+    // ---------------------------------------------------------------
+
+    private AgentStops prepare(Long pickupPersonId, LocalDate date, List<Request> requests) {
+        List<Request> located = new ArrayList<>(requests.size());
+        List<Long> unlocated = new ArrayList<>();
+        for (Request r : requests) {
+            if (r.getLatitude() == null || r.getLongitude() == null) {
+                unlocated.add(r.getId());
+            } else {
+                located.add(r);
+            }
+        }
+        double[] lat = new double[located.size()];
+        double[] lng = new double[located.size()];
+        for (int i = 0; i < lat.length; i++) {
+            lat[i] = located.get(i).getLatitude();
+            lng[i] = located.get(i).getLongitude();
+        }
+
+        LiveLocationStore.Location start = liveLocationStore.get(pickupPersonId);
+        return new AgentStops(pickupPersonId, date,
+                start != null ? start.latitude() : null, start != null ? start.longitude() : null,
+                located, lat, lng, unlocated);
+    }
+
+    private RoutePlan plan(AgentStops in) {
+        RoutePlanner.Route route = RoutePlanner.plan(in.startLat(), in.startLng(), in.lat(), in.lng());
+
+        RoutePlan plan = new RoutePlan();
+        plan.setPickupPersonId(in.pickupPersonId());
+        plan.setDate(in.date());
+        plan.setStartLatitude(in.startLat());
+        plan.setStartLongitude(in.startLng());
+        plan.setTotalKm(round(route.totalKm()));
+        plan.setUnlocatedRequestIds(in.unlocated());
+
+        // Requests arrive sorted by scheduled time, so the identity order is the baseline
+        int[] scheduledOrder = new int[in.lat().length];
+        for (int i = 0; i < scheduledOrder.length; i++) scheduledOrder[i] = i;
+        plan.setScheduledOrderKm(round(RoutePlanner.routeLength(in.startLat(), in.startLng(), in.lat(), in.lng(), scheduledOrder)));
+
+        double prevLat = in.startLat() != null ? in.startLat() : Double.NaN;
+        double prevLng = in.startLng() != null ? in.startLng() : Double.NaN;
+        int sequence = 1;
+        for (int idx : route.order()) {
+            Request r = in.located().get(idx);
+            RoutePlan.Stop stop = new RoutePlan.Stop();
+            stop.setSequence(sequence++);
+            stop.setRequestId(r.getId());
+            stop.setPickupLocation(r.getPickupLocation());
+            stop.setScheduledTime(r.getScheduledTime());
+            stop.setLatitude(in.lat()[idx]);
+            stop.setLongitude(in.lng()[idx]);
+            stop.setLegKm(Double.isNaN(prevLat) ? 0
+                    : round(RequestService.calculateHaversineDistance(prevLat, prevLng, in.lat()[idx], in.lng()[idx])));
+            plan.getStops().add(stop);
+            prevLat = in.lat()[idx];
+            prevLng = in.lng()[idx];
+        }
+        return plan;
+    }
+
+    private static double round(double km) {
+        return Math.round(km * 100) / 100.0;
+    }
+}
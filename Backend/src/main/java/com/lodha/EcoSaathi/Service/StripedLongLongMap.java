@@ -0,0 +1,172 @@
+package com.lodha.EcoSaathi.Service;
+
+import java.util.Arrays;
+
+/**
+ * Concurrent long -> long map without boxing. Keys are spread over a
+ * fixed number of stripes; each stripe is a small open-addressing table
+ * (linear probing, backward-shift deletion) guarded by its own monitor,
+ * so threads working on different users rarely contend.
+ * Long.MIN_VALUE is reserved as the empty-slot marker and cannot be a key.
+ */
+public final class StripedLongLongMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public StripedLongLongMap(int stripes) {
+        int n = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) this.stripes[i] = new Stripe();
+        this.stripeMask = n - 1;
+    }
+
+    // Murmur3 finalizer: sequential ids land in different stripes and slots
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> 40) & stripeMask];
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) throw new IllegalArgumentException("Reserved key");
+    }
+
+    /** Value for key, or missing when absent. */
+    public long get(long key, long missing) {
+        long h = mix(key);
+        return stripe(h).get(key, h, missing);
+    }
+
+    public void put(long key, long value) {
+        checkKey(key);
+        long h = mix(key);
+        stripe(h).put(key, h, value, false);
+    }
+
+    /** Stores value only if key is absent; returns the value now in the map. */
+    public long putIfAbsent(long key, long value) {
+        checkKey(key);
+        long h = mix(key);
+        return stripe(h).put(key, h, value, true);
+    }
+
+    /** Adds delta (never going below floor) if key is present; returns the new value, or missing. */
+    public long addIfPresent(long key, long delta, long floor, long missing) {
+        long h = mix(key);
+        return stripe(h).add(key, h, delta, floor, missing);
+    }
+
+    public void remove(long key) {
+        long h = mix(key);
+        stripe(h).remove(key, h);
+    }
+
+    public void clear() {
+        for (Stripe s : stripes) s.clear();
+    }
+
+    public int size() {
+        int total = 0;
+        for (Stripe s : stripes) total += s.size();
+        return total;
+    }
+
+    private static final class Stripe {
+        private long[] keys = newKeys(16);
+        private long[] values = new long[16];
+        private int size;
+
+        private static long[] newKeys(int capacity) {
+            long[] k = new long[capacity];
+            Arrays.fill(k, EMPTY);
+            return k;
+        }
+
+        // Index of key's slot, or of the empty slot where it would go
+        private int find(long key, long hash) {
+            int mask = keys.length - 1;
+            int i = (int) hash & mask;
+            while (keys[i] != EMPTY && keys[i] != key) i = (i + 1) & mask;
+            return i;
+        }
+
+        synchronized long get(long key, long hash, long missing) {
+            int i = find(key, hash);
+            return keys[i] == key ? values[i] : missing;
+        }
+
+        synchronized long put(long key, long hash, long value, boolean onlyIfAbsent) {
+            int i = find(key, hash);
+            if (keys[i] == key) {
+                if (!onlyIfAbsent) values[i] = value;
+                return values[i];
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size * 2 > keys.length) grow();
+            return value;
+        }
+
+        synchronized long add(long key, long hash, long delta, long floor, long missing) {
+            int i = find(key, hash);
+            if (keys[i] != key) return missing;
+            values[i] = Math.max(floor, values[i] + delta);
+            return values[i];
+        }
+
+        synchronized void remove(long key, long hash) {
+            int i = find(key, hash);
+            if (keys[i] != key) return;
+            // Backward-shift: pull later entries of the probe run into the hole
+            int mask = keys.length - 1;
+            int hole = i;
+            int j = (i + 1) & mask;
+            while (keys[j] != EMPTY) {
+                int home = (int) mix(keys[j]) & mask;
+                boolean movable = hole <= j ? (home <= hole || home > j) : (home <= hole && home > j);
+                if (movable) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+                j = (j + 1) & mask;
+            }
+            keys[hole] = EMPTY;
+            size--;
+        }
+
+        synchronized void clear() {
+            keys = newKeys(16);
+            values = new long[16];
+            size = 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new long[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = find(oldKeys[i], mix(oldKeys[i]));
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
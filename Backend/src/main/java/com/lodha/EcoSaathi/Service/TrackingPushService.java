@@ -0,0 +1,181 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.PickupPerson;
+import com.lodha.EcoSaathi.Entity.Request;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live tracking streams (SSE) for users waiting on a pickup.
+ *
+ * Watchers are indexed by the assigned pickup person's id, so a location
+ * report reaches every stream watching that agent with one map lookup.
+ * The request and its destination coordinates are loaded once, when the
+ * stream opens; after that each update costs no DB reads, only a distance
+ * and ETA computed in memory. Unchanged positions are not re-sent.
+ *
+ * Fan-out runs on a single background thread, so a slow client never
+ * holds up the agent's location-update request and each stream still
+ * sees positions in order. If that thread falls behind, the oldest
+ * queued positions are dropped: a newer one supersedes them anyway.
+ */
+@Service
+public class TrackingPushService {
+
+    private static final int PUSH_QUEUE_CAPACITY = 10_000;
+
+    private static final class Watcher {
+        final Long requestId;
+        final double[] destination; // null when the address could not be geocoded
+        final SseEmitter emitter;
+        // Last position sent; guarded by the watcher's monitor (initial push and fan-out can overlap)
+        double lastLatitude = Double.NaN;
+        double lastLongitude = Double.NaN;
+
+        Watcher(Long requestId, double[] destination, SseEmitter emitter) {
+            this.requestId = requestId;
+            this.destination = destination;
+            this.emitter = emitter;
+        }
+    }
+
+    private final RequestService requestService;
+    private final LiveLocationStore liveLocationStore;
+    private final Map<Long, List<Watcher>> watchersByAgent = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ThreadPoolExecutor pusher;
+
+    @Value("${app.tracking.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    public TrackingPushService(RequestService requestService, LiveLocationStore liveLocationStore) {
+        this.requestService = requestService;
+        this.liveLocationStore = liveLocationStore;
+        this.pusher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(PUSH_QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "tracking-push");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    // ✅ Open a stream for one request; the first event carries the current position
+    public SseEmitter subscribe(Long requestId) {
+        Request request = requestService.findById(requestId);
+        PickupPerson person = request.getAssignedPickupPerson();
+        if (person == null) {
+            throw new RuntimeException("No Pickup Person assigned yet.");
+        }
+        Long agentId = person.getId();
+
+        Watcher watcher = new Watcher(requestId, requestService.getRequestCoordinates(request),
+                new SseEmitter(streamTimeoutMs));
+        // Add inside compute so a concurrent unsubscribe cannot drop the list we are adding to
+        watchersByAgent.compute(agentId, (k, list) -> {
+            list = list == null ? new CopyOnWriteArrayList<>() : list;
+            list.add(watcher);
+            return list;
+        });
+        connections.incrementAndGet();
+
+        Runnable remove = () -> unsubscribe(agentId, watcher);
+        watcher.emitter.onCompletion(remove);
+        watcher.emitter.onTimeout(remove);
+        watcher.emitter.onError(e -> remove.run());
+
+        LiveLocationStore.Location location = liveLocationStore.locate(person);
+        if (location != null) push(agentId, watcher, location);
+        return watcher.emitter;
+    }
+
+    private void unsubscribe(Long agentId, Watcher watcher) {
+        watchersByAgent.computeIfPresent(agentId, (k, list) -> {
+            if (list.remove(watcher)) connections.decrementAndGet();
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    // ✅ Called for every location report; a no-op unless someone is watching this agent.
+    // Returns at once: the sends happen on the tracking-push thread.
+    public void publishLocation(Long agentId, LiveLocationStore.Location location) {
+        if (!watchersByAgent.containsKey(agentId)) return;
+        pusher.execute(() -> {
+            List<Watcher> watchers = watchersByAgent.get(agentId);
+            if (watchers == null) return;
+            for (Watcher watcher : watchers) {
+                push(agentId, watcher, location);
+            }
+        });
+    }
+
+    public boolean hasWatchers(Long agentId) {
+        return watchersByAgent.containsKey(agentId);
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.heartbeat-ms:25000}")
+    public void heartbeat() {
+        watchersByAgent.forEach((agentId, list) -> {
+            for (Watcher watcher : list) {
+                try {
+                    watcher.emitter.send(SseEmitter.event().comment("hb"));
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(agentId, watcher);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pusher.shutdownNow();
+    }
+
+    private void push(Long agentId, Watcher watcher, LiveLocationStore.Location location) {
+        synchronized (watcher) {
+            if (watcher.lastLatitude == location.latitude() && watcher.lastLongitude == location.longitude()) return;
+            send(agentId, watcher, location);
+        }
+    }
+
+    private void send(Long agentId, Watcher watcher, LiveLocationStore.Location location) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("requestId", watcher.requestId);
+        payload.put("latitude", location.latitude());
+        payload.put("longitude", location.longitude());
+        payload.put("updatedAt", location.updatedAt());
+        if (watcher.destination != null) {
+            double distanceKm = RequestService.calculateHaversineDistance(
+                    location.latitude(), location.longitude(), watcher.destination[0], watcher.destination[1]);
+            int minutes = RequestService.estimateMinutes(distanceKm);
+            payload.put("distanceKm", Math.round(distanceKm * 100) / 100.0);
+            payload.put("etaMinutes", minutes);
+            payload.put("estimatedTime", RequestService.formatEta(minutes));
+        }
+
+        try {
+            watcher.emitter.send(SseEmitter.event().name("location").data(payload));
+            watcher.lastLatitude = location.latitude();
+            watcher.lastLongitude = location.longitude();
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(agentId, watcher);
+        }
+    }
+}
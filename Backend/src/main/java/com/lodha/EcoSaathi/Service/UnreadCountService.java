@@ -0,0 +1,63 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory unread notification count per user.
+ *
+ * A user's count is loaded with one COUNT query on first read and then
+ * kept current by NotificationService (create / mark read / clear).
+ * Counts only move after the change has committed. Entries are dropped
+ * on each reconcile tick and reloaded lazily on the next read, so drift
+ * (e.g. an increment racing the first load) heals itself.
+ */
+@Service
+public class UnreadCountService {
+
+    private static final long MISSING = -1L;
+
+    private final NotificationRepository notificationRepository;
+    private final StripedLongLongMap counts;
+
+    public UnreadCountService(NotificationRepository notificationRepository,
+                              @Value("${app.notifications.unread-stripes:64}") int stripes) {
+        this.notificationRepository = notificationRepository;
+        this.counts = new StripedLongLongMap(stripes);
+    }
+
+    public long get(Long userId) {
+        long cached = counts.get(userId, MISSING);
+        if (cached != MISSING) return cached;
+        long loaded = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return counts.putIfAbsent(userId, loaded);
+    }
+
+    // Unloaded users are left alone: their first read will count the new row anyway
+    public void increment(Long userId) {
+        counts.addIfPresent(userId, 1, 0, MISSING);
+    }
+
+    public void decrement(Long userId) {
+        counts.addIfPresent(userId, -1, 0, MISSING);
+    }
+
+    public void reset(Long userId) {
+        counts.put(userId, 0);
+    }
+
+    public void forget(Long userId) {
+        counts.remove(userId);
+    }
+
+    public int cachedUsers() {
+        return counts.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.unread-reconcile-ms:600000}")
+    public void reconcile() {
+        counts.clear();
+    }
+}
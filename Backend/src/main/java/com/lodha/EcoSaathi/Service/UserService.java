@@ -6,7 +6,6 @@ import com.lodha.EcoSaathi.Repository.IssueRepository;
 import com.lodha.EcoSaathi.Repository.NotificationRepository;
 import com.lodha.EcoSaathi.Repository.RequestRepository;
 import com.lodha.EcoSaathi.Repository.UserRepository;
-import com.lodha.EcoSaathi.Config.FileStorageProperties;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // ✅ ADD THIS IMPORT
@@ -16,11 +15,6 @@ import java.time.LocalDateTime;
 import java.util.Random;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
 
 @Service
 @Transactional
@@ -31,31 +25,30 @@ public class UserService {
     private final NotificationRepository notificationRepository; // ✅ Added
     private final IssueRepository issueRepository; // ✅ Added
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-    private final FileStorageProperties fileStorageProperties;
+    private final FileStorageService fileStorageService;
+    private final ImageDerivativeService imageDerivativeService;
     private final EmailService emailService;
     private final NotificationService notificationService;
+    private final RequestStatsService requestStatsService;
 
     public UserService(UserRepository userRepository,
                        RequestRepository requestRepository,
                        NotificationRepository notificationRepository, // ✅ Injected
                        IssueRepository issueRepository, // ✅ Injected
-                       FileStorageProperties fileStorageProperties,
+                       FileStorageService fileStorageService,
+                       ImageDerivativeService imageDerivativeService,
                        EmailService emailService,
-                       NotificationService notificationService) {
+                       NotificationService notificationService,
+                       RequestStatsService requestStatsService) {
         this.userRepository = userRepository;
         this.requestRepository = requestRepository;
         this.notificationRepository = notificationRepository;
         this.issueRepository = issueRepository;
-        this.fileStorageProperties = fileStorageProperties;
+        this.fileStorageService = fileStorageService;
+        this.imageDerivativeService = imageDerivativeService;
         this.emailService = emailService;
         this.notificationService = notificationService;
-
-        try {
-            Path fileStorageLocation = Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
-            Files.createDirectories(fileStorageLocation);
-        } catch (Exception ex) {
-            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
-        }
+        this.requestStatsService = requestStatsService;
     }
 
     public User registerUser(User user) {
@@ -167,31 +160,6 @@ public class UserService {
         return savedUser;
     }
 
-    private String saveFile(MultipartFile file) {
-        try {
-            // 1. Create a unique filename (UUID + extension)
-            String originalFileName = file.getOriginalFilename();
-            String fileExtension = "";
-            int dotIndex = originalFileName.lastIndexOf('.');
-            if (dotIndex > 0) {
-                fileExtension = originalFileName.substring(dotIndex);
-            }
-            String fileName = UUID.randomUUID().toString() + fileExtension;
-
-            // 2. Resolve the target path within the 'uploads' folder
-            Path targetLocation = Paths.get(fileStorageProperties.getUploadDir()).resolve(fileName);
-
-            // 3. Copy/Save the file to the disk
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            return "/images/" + fileName;
-
-        } catch (Exception ex) {
-            System.err.println("File Storage Error: " + ex.getMessage());
-            throw new RuntimeException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
-        }
-    }
-
     public User updateProfilePicture(Long userId, MultipartFile file) {
         if (file.isEmpty()) {
             throw new RuntimeException("File is empty. Cannot upload profile picture.");
@@ -200,13 +168,16 @@ public class UserService {
         User existingUser = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
-        String fileUrl = saveFile(file); // Calls the real save method
-        existingUser.setProfilePictureUrl(fileUrl);
+        // Content-addressed: re-uploading the same picture reuses the stored blob
+        String key = fileStorageService.store(file);
+        existingUser.setProfilePictureUrl("/images/" + key);
 
         // 🔔 NOTIFICATION
         notificationService.createNotification(existingUser, "Profile picture updated successfully.", "INFO");
 
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+        imageDerivativeService.generateAsync(List.of(key));
+        return savedUser;
     }
 
     // 🔹 1. Generate OTP for Forgot Password
@@ -276,7 +247,8 @@ public class UserService {
 
         // 🛡️ चेन डिलीट (Chain Delete) - Foreign Key Constraints फिक्स करने के लिए
 
-        // 1. डिलीट यूजर की नोटिफिकेशन्स
+        // 1. डिलीट यूजर की नोटिफिकेशन्स (queued ones are written first; later ones are skipped by the writer)
+        notificationService.flushPending();
         notificationRepository.deleteByUserId(userId);
 
         // 2. डिलीट यूजर के सपोर्ट टिकट्स (Issues)
@@ -284,6 +256,7 @@ public class UserService {
 
         // 3. डिलीट यूजर की पिकअप रिक्वेस्ट्स
         requestRepository.deleteByUserId(userId);
+        requestStatsService.onUserRequestsDeleted(userId);
 
         // 4. अंत में यूजर को डिलीट करें
         userRepository.delete(user);
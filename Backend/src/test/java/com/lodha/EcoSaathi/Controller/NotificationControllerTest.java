@@ -0,0 +1,104 @@
+package com.lodha.EcoSaathi.Controller;
+
+import com.lodha.EcoSaathi.Entity.User;
+import com.lodha.EcoSaathi.Repository.NotificationRepository;
+import com.lodha.EcoSaathi.Service.NotificationPushService;
+import com.lodha.EcoSaathi.Service.NotificationService;
+import com.lodha.EcoSaathi.Service.NotificationWriter;
+import com.lodha.EcoSaathi.Service.UnreadCountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class NotificationControllerTest {
+
+    private NotificationRepository repository;
+    private NotificationPushService push;
+    private NotificationService service;
+    private NotificationWriter writer;
+    private JdbcTemplate jdbcTemplate;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        // Hand back one generated key per batched row
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class)))
+                .thenAnswer(inv -> {
+                    BatchPreparedStatementSetter setter = inv.getArgument(1);
+                    KeyHolder keys = inv.getArgument(2);
+                    for (int i = 0; i < setter.getBatchSize(); i++) {
+                        keys.getKeyList().add(Map.of("GENERATED_KEY", 99L));
+                    }
+                    return new int[setter.getBatchSize()];
+                });
+        push = new NotificationPushService();
+        UnreadCountService unread = new UnreadCountService(repository, 4);
+        // Not started: the tests flush the queue themselves
+        writer = new NotificationWriter(jdbcTemplate, mock(PlatformTransactionManager.class), unread, push, 100, 50, 10);
+        service = new NotificationService(repository, push, unread, writer);
+        mvc = MockMvcBuilders.standaloneSetup(new NotificationController(service)).build();
+    }
+
+    private static User user(long id) {
+        User u = new User();
+        u.setId(id);
+        return u;
+    }
+
+    @Test
+    void streamSendsInitialCountThenPushedNotifications() throws Exception {
+        when(repository.countByUserIdAndIsReadFalse(7L)).thenReturn(2L);
+
+        MvcResult result = mvc.perform(get("/api/notifications/user/7/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1, push.getConnectionCount());
+
+        service.createNotification(user(7L), "Request #5 approved", "SUCCESS");
+        writer.flush();
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:unread-count\ndata:2"), body);
+        assertTrue(body.contains("event:notification\ndata:"), body);
+        assertTrue(body.contains("Request #5 approved"), body);
+        assertTrue(body.contains("event:unread-count\ndata:3"), body);
+        // Second count came from the in-memory counter
+        verify(repository, times(1)).countByUserIdAndIsReadFalse(7L);
+    }
+
+    @Test
+    void usersWithoutStreamCostNoCountQuery() {
+        service.createNotification(user(8L), "hello", "INFO");
+        writer.flush();
+
+        verify(jdbcTemplate).batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+        verify(repository, never()).countByUserIdAndIsReadFalse(any());
+    }
+
+    @Test
+    void streamsAreScopedPerUser() throws Exception {
+        MvcResult other = mvc.perform(get("/api/notifications/user/1/stream")).andReturn();
+
+        service.createNotification(user(2L), "not yours", "INFO");
+        writer.flush();
+
+        assertFalse(other.getResponse().getContentAsString().contains("not yours"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.lodha.EcoSaathi.Controller;
+
+import com.lodha.EcoSaathi.Entity.PickupPerson;
+import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Repository.PickupPersonRepository;
+import com.lodha.EcoSaathi.Service.LiveLocationStore;
+import com.lodha.EcoSaathi.Service.LocationTrailLog;
+import com.lodha.EcoSaathi.Service.PickupPersonService;
+import com.lodha.EcoSaathi.Service.RequestService;
+import com.lodha.EcoSaathi.Service.RoutePlanningService;
+import com.lodha.EcoSaathi.Service.TrackingPushService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PickupTrackingStreamTest {
+
+    @TempDir
+    Path trailDir;
+
+    private RequestService requestService;
+    private TrackingPushService tracking;
+    private LocationTrailLog trailLog;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        PickupPersonRepository pickupRepository = mock(PickupPersonRepository.class);
+        when(pickupRepository.existsById(anyLong())).thenReturn(true);
+        LiveLocationStore store = new LiveLocationStore(pickupRepository, mock(JdbcTemplate.class), 1024, 0.05, 40);
+        trailLog = new LocationTrailLog(trailDir.toString(), 60, 1000, 30, 20000);
+
+        PickupPerson agent = new PickupPerson();
+        agent.setId(4L);
+        agent.setLatitude(19.00);
+        agent.setLongitude(72.80);
+        Request req = new Request();
+        req.setId(11L);
+        req.setLatitude(19.10);
+        req.setLongitude(72.80);
+        req.setAssignedPickupPerson(agent);
+
+        requestService = mock(RequestService.class);
+        when(requestService.findById(11L)).thenReturn(req);
+        when(requestService.getRequestCoordinates(req)).thenReturn(new double[]{19.10, 72.80});
+
+        tracking = new TrackingPushService(requestService, store);
+        mvc = MockMvcBuilders.standaloneSetup(new PickupPersonController(
+                mock(PickupPersonService.class), requestService, store, trailLog, tracking,
+                mock(RoutePlanningService.class), 120, 240)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        trailLog.shutdown();
+        tracking.shutdown();
+    }
+
+    // Fan-out is asynchronous: wait until the stream has the expected events, then a little more
+    private static String awaitEvents(MvcResult stream, int expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count(stream.getResponse().getContentAsString(), "event:location") < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        return stream.getResponse().getContentAsString();
+    }
+
+    private static int count(String body, String needle) {
+        int n = 0;
+        for (int i = body.indexOf(needle); i >= 0; i = body.indexOf(needle, i + 1)) n++;
+        return n;
+    }
+
+    @Test
+    void pushesPositionDistanceAndEtaOnlyWhenAgentMoves() throws Exception {
+        MvcResult stream = mvc.perform(get("/api/pickup/request/11/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1, tracking.getConnectionCount());
+
+        mvc.perform(put("/api/pickup/location/update/4").param("latitude", "19.05").param("longitude", "72.80"))
+                .andExpect(status().isOk());
+        mvc.perform(put("/api/pickup/location/update/4").param("latitude", "19.05").param("longitude", "72.80"))
+                .andExpect(status().isOk());
+
+        String body = awaitEvents(stream, 2);
+        // Initial position from the stored row, then one event for the move; the repeat is skipped
+        assertEquals(2, count(body, "event:location"), body);
+        assertTrue(body.contains("\"distanceKm\":11.12"), body);
+        assertTrue(body.contains("\"distanceKm\":5.56"), body);
+        assertTrue(body.contains("\"estimatedTime\":\"11 mins\""), body);
+        // The request was read once, when the stream opened
+        verify(requestService, times(1)).findById(11L);
+    }
+
+    @Test
+    void updatesForUnwatchedAgentsPushNothing() throws Exception {
+        mvc.perform(put("/api/pickup/location/update/9").param("latitude", "1").param("longitude", "1"))
+                .andExpect(status().isOk());
+
+        assertFalse(tracking.hasWatchers(9L));
+        verifyNoInteractions(requestService);
+    }
+}
@@ -0,0 +1,103 @@
+package com.lodha.EcoSaathi.Controller;
+
+import com.lodha.EcoSaathi.Config.FileStorageProperties;
+import com.lodha.EcoSaathi.Service.FileStorageService;
+import com.lodha.EcoSaathi.Service.ImageDerivativeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ResourceControllerTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private MockMvc mvc;
+    private FileStorageService storage;
+    private String url;
+
+    @BeforeEach
+    void setUp() {
+        FileStorageProperties props = new FileStorageProperties();
+        props.setUploadDir(uploadDir.toString());
+        storage = new FileStorageService(props, 1);
+        ImageDerivativeService derivatives = new ImageDerivativeService(storage, 1, 1, 16_000_000);
+        mvc = MockMvcBuilders.standaloneSetup(new ResourceController(storage, derivatives)).build();
+
+        String key = storage.store(new MockMultipartFile("file", "pic.png", "image/png", "0123456789".getBytes()));
+        url = "/images/" + key;
+    }
+
+    @Test
+    void servesWholeFileWithCachingHeaders() throws Exception {
+        mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().string("0123456789"))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void neverServesMarkupFromTheApiOrigin() throws Exception {
+        String key = storage.store(new MockMultipartFile("file", "x.html", "text/html", "<script>1</script>".getBytes()));
+        mvc.perform(get("/images/" + key))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"));
+
+        // A legacy flat upload with a markup extension is only offered as a download
+        Files.writeString(uploadDir.resolve("old.svg"), "<svg onload='alert(1)'/>");
+        mvc.perform(get("/images/old.svg"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/octet-stream"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWith304() throws Exception {
+        MvcResult first = mvc.perform(get(url)).andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        MvcResult second = mvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+        assertEquals(0, second.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    void servesByteRanges() throws Exception {
+        mvc.perform(get(url).header("Range", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+
+        mvc.perform(get(url).header("Range", "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("789"));
+
+        mvc.perform(get(url).header("Range", "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */10"));
+    }
+
+    @Test
+    void missingVariantFallsBackToOriginalWithShortCaching() throws Exception {
+        mvc.perform(get(url).param("variant", "thumb"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"))
+                .andExpect(header().string("Cache-Control", "public, max-age=60"));
+    }
+}
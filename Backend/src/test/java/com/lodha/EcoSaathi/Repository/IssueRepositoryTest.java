@@ -0,0 +1,99 @@
+package com.lodha.EcoSaathi.Repository;
+
+import com.lodha.EcoSaathi.Dto.IssueSummary;
+import com.lodha.EcoSaathi.Entity.Issue;
+import com.lodha.EcoSaathi.Entity.IssueMessage;
+import com.lodha.EcoSaathi.Entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class IssueRepositoryTest {
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private IssueMessageRepository issueMessageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private final LocalDateTime base = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("tickets@test.com");
+        user.setFirstName("Asha");
+        user = userRepository.save(user);
+
+        // 25 tickets; pairs share a lastUpdatedAt so paging has to break ties on id
+        for (int i = 0; i < 25; i++) {
+            Issue issue = new Issue();
+            issue.setSubject("ticket " + i);
+            issue.setUser(i < 20 ? user : null);
+            issue.setLastUpdatedAt(base.plusMinutes(i / 2));
+            issue = issueRepository.save(issue);
+            for (int m = 0; m <= i % 3; m++) {
+                IssueMessage msg = new IssueMessage();
+                msg.setIssue(issue);
+                msg.setMessage("message " + m + " on " + i + " " + "x".repeat(200));
+                issueMessageRepository.save(msg);
+            }
+        }
+    }
+
+    @Test
+    void summariesCarryCountAndNewestMessagePreview() {
+        List<IssueSummary> rows = issueRepository.findSummaries(user.getId(), null, null, null, PageRequest.of(0, 1));
+
+        IssueSummary newest = rows.get(0);
+        assertEquals("ticket 19", newest.getSubject());
+        assertEquals("Asha", newest.getReporterName());
+        assertEquals(2, newest.getMessageCount());            // 19 % 3 + 1
+        assertTrue(newest.getLastMessagePreview().startsWith("message 1 on 19"));
+        assertEquals(120, newest.getLastMessagePreview().length());
+    }
+
+    @Test
+    void keysetPagesWalkEveryTicketOnceNewestFirst() {
+        List<IssueSummary> seen = new ArrayList<>();
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        while (true) {
+            List<IssueSummary> page = issueRepository.findSummaries(null, null, cursorTime, cursorId, PageRequest.of(0, 7));
+            if (page.isEmpty()) break;
+            seen.addAll(page);
+            IssueSummary last = page.get(page.size() - 1);
+            cursorTime = last.getLastUpdatedAt();
+            cursorId = last.getId();
+        }
+
+        assertEquals(25, seen.size());
+        assertEquals(25, seen.stream().map(IssueSummary::getId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            IssueSummary prev = seen.get(i - 1), cur = seen.get(i);
+            int byTime = cur.getLastUpdatedAt().compareTo(prev.getLastUpdatedAt());
+            assertTrue(byTime < 0 || (byTime == 0 && cur.getId() < prev.getId()));
+        }
+    }
+
+    @Test
+    void ownerFilterOnlyReturnsThatUsersTickets() {
+        List<IssueSummary> rows = issueRepository.findSummaries(user.getId(), null, null, null, PageRequest.of(0, 100));
+
+        assertEquals(20, rows.size());
+        assertTrue(rows.stream().allMatch(r -> "Asha".equals(r.getReporterName())));
+    }
+}
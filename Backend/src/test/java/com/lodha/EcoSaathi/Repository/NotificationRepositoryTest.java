@@ -0,0 +1,84 @@
+package com.lodha.EcoSaathi.Repository;
+
+import com.lodha.EcoSaathi.Entity.Notification;
+import com.lodha.EcoSaathi.Entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class NotificationRepositoryTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("feed@test.com");
+        user = userRepository.save(user);
+
+        User other = new User();
+        other.setEmail("other@test.com");
+        other = userRepository.save(other);
+
+        for (int i = 0; i < 45; i++) {
+            notificationRepository.save(notification(user, "n" + i));
+        }
+        notificationRepository.save(notification(other, "not yours"));
+    }
+
+    private static Notification notification(User owner, String message) {
+        Notification n = new Notification();
+        n.setUser(owner);
+        n.setMessage(message);
+        n.setType("INFO");
+        return n;
+    }
+
+    @Test
+    void feedPagesWalkTheWholeHistoryNewestFirst() {
+        PageRequest page = PageRequest.of(0, 20);
+        List<Notification> first = notificationRepository.findByUserIdOrderByIdDesc(user.getId(), page);
+        List<Notification> second = notificationRepository.findByUserIdAndIdLessThanOrderByIdDesc(
+                user.getId(), first.get(first.size() - 1).getId(), page);
+        List<Notification> third = notificationRepository.findByUserIdAndIdLessThanOrderByIdDesc(
+                user.getId(), second.get(second.size() - 1).getId(), page);
+
+        assertEquals(20, first.size());
+        assertEquals(20, second.size());
+        assertEquals(5, third.size());
+        assertEquals("n44", first.get(0).getMessage());
+        assertEquals("n0", third.get(4).getMessage());
+
+        Set<Long> ids = new HashSet<>();
+        for (List<Notification> p : List.of(first, second, third)) {
+            for (int i = 0; i < p.size(); i++) {
+                assertTrue(ids.add(p.get(i).getId()));
+                if (i > 0) assertTrue(p.get(i - 1).getId() > p.get(i).getId());
+            }
+        }
+    }
+
+    @Test
+    void markAllReadOnlyTouchesThatUser() {
+        assertEquals(45, notificationRepository.markAllRead(user.getId()));
+
+        assertEquals(0, notificationRepository.countByUserIdAndIsReadFalse(user.getId()));
+        assertEquals(46 - 45, notificationRepository.findAll().stream().filter(n -> !n.isRead()).count());
+        assertEquals(0, notificationRepository.markAllRead(user.getId()));
+    }
+}
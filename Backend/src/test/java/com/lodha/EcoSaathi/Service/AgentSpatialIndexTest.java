@@ -0,0 +1,97 @@
+package com.lodha.EcoSaathi.Service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgentSpatialIndexTest {
+
+    private final Map<Long, double[]> positions = new HashMap<>();
+
+    private void place(AgentSpatialIndex index, long id, double lat, double lng) {
+        positions.put(id, new double[]{lat, lng});
+        index.move(id, lat, lng);
+    }
+
+    private List<Long> bruteForce(double lat, double lng, int k) {
+        List<Long> ids = new ArrayList<>(positions.keySet());
+        ids.sort(Comparator.comparingDouble(id -> RequestService.calculateHaversineDistance(
+                lat, lng, positions.get(id)[0], positions.get(id)[1])));
+        return ids.subList(0, Math.min(k, ids.size()));
+    }
+
+    private static List<Long> ids(List<AgentSpatialIndex.Neighbor> neighbors) {
+        return neighbors.stream().map(AgentSpatialIndex.Neighbor::agentId).toList();
+    }
+
+    @Test
+    void matchesBruteForceAcrossACity() {
+        AgentSpatialIndex index = new AgentSpatialIndex(0.05, 40);
+        Random random = new Random(7);
+        for (long id = 1; id <= 3000; id++) {
+            place(index, id, 18.9 + random.nextDouble() * 0.4, 72.7 + random.nextDouble() * 0.4);
+        }
+        // Some agents move, most within their cell
+        for (long id = 1; id <= 500; id++) {
+            place(index, id, 18.9 + random.nextDouble() * 0.4, 72.7 + random.nextDouble() * 0.4);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            double lat = 18.8 + random.nextDouble() * 0.6;
+            double lng = 72.6 + random.nextDouble() * 0.6;
+            int k = 1 + random.nextInt(10);
+            assertEquals(bruteForce(lat, lng, k), ids(index.nearest(lat, lng, k, positions::get)));
+        }
+    }
+
+    @Test
+    void farAwayTargetFallsBackToFullScan() {
+        AgentSpatialIndex index = new AgentSpatialIndex(0.05, 5);
+        place(index, 1L, 19.0, 72.8);   // Mumbai
+        place(index, 2L, 28.6, 77.2);   // Delhi
+        place(index, 3L, 13.0, 77.6);   // Bengaluru
+
+        List<AgentSpatialIndex.Neighbor> nearest = index.nearest(12.9, 80.2, 2, positions::get); // Chennai
+        assertEquals(List.of(3L, 1L), ids(nearest));
+        assertTrue(nearest.get(0).distanceKm() < nearest.get(1).distanceKm());
+    }
+
+    @Test
+    void removedAgentsAreNotReturned() {
+        AgentSpatialIndex index = new AgentSpatialIndex(0.05, 40);
+        place(index, 1L, 19.0, 72.8);
+        place(index, 2L, 19.01, 72.8);
+        index.remove(1L);
+
+        assertEquals(List.of(2L), ids(index.nearest(19.0, 72.8, 5, positions::get)));
+        assertEquals(1, index.size());
+    }
+
+    // Latency run; excluded from the default build, run with -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void queryLatency() {
+        AgentSpatialIndex index = new AgentSpatialIndex(0.05, 40);
+        Random random = new Random(11);
+        for (long id = 1; id <= 10_000; id++) {
+            place(index, id, 18.5 + random.nextDouble() * 1.5, 72.5 + random.nextDouble() * 1.5);
+        }
+        int queries = 20_000;
+        long start = System.nanoTime();
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            found += index.nearest(18.5 + random.nextDouble() * 1.5, 72.5 + random.nextDouble() * 1.5, 5, positions::get).size();
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / queries;
+        assertEquals(5 * queries, found);
+        assertTrue(micros < 1000, "nearest-5 over 10000 agents took " + micros + " µs per query");
+    }
+}
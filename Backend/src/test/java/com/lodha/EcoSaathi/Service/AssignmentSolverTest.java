@@ -0,0 +1,137 @@
+package com.lodha.EcoSaathi.Service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssignmentSolverTest {
+
+    private static double[][] randomPoints(Random random, int n) {
+        double[][] points = new double[2][n];
+        for (int i = 0; i < n; i++) {
+            points[0][i] = 18.9 + random.nextDouble() * 0.3;
+            points[1][i] = 72.8 + random.nextDouble() * 0.3;
+        }
+        return points;
+    }
+
+    private static double totalKm(double[][] req, double[][] agents, int[] agentOf) {
+        double km = 0;
+        for (int r = 0; r < agentOf.length; r++) {
+            if (agentOf[r] >= 0) {
+                km += RequestService.calculateHaversineDistance(req[0][r], req[1][r], agents[0][agentOf[r]], agents[1][agentOf[r]]);
+            }
+        }
+        return km;
+    }
+
+    @Test
+    void hungarianMatchesBruteForce() {
+        Random random = new Random(7);
+        for (int round = 0; round < 30; round++) {
+            int rows = 1 + random.nextInt(5);
+            int cols = rows + random.nextInt(3);
+            double[] cost = new double[rows * cols];
+            for (int i = 0; i < cost.length; i++) cost[i] = random.nextInt(100);
+
+            int[] colOfRow = AssignmentSolver.minCostAssignment(cost, rows, cols);
+            double found = 0;
+            for (int r = 0; r < rows; r++) found += cost[r * cols + colOfRow[r]];
+
+            assertEquals(bruteForce(cost, rows, cols, 0, new boolean[cols]), found, 1e-9);
+        }
+    }
+
+    @Test
+    void respectsCapacityAndLeavesOverflowUnassigned() {
+        // Both agents can take two more jobs; five requests means one is left over
+        double[][] req = randomPoints(new Random(1), 5);
+        double[][] agents = {{19.0, 19.1}, {72.9, 73.0}};
+
+        AssignmentSolver.Solution solution = AssignmentSolver.solve(req[0], req[1], agents[0], agents[1],
+                new int[]{0, 0}, new int[]{2, 2}, 0, 250_000, 16);
+
+        int[] perAgent = new int[2];
+        int unassigned = 0;
+        for (int a : solution.agentOf()) {
+            if (a < 0) unassigned++;
+            else perAgent[a]++;
+        }
+        assertEquals(AssignmentSolver.Method.HUNGARIAN, solution.method());
+        assertArrayEquals(new int[]{2, 2}, perAgent);
+        assertEquals(1, unassigned);
+    }
+
+    @Test
+    void loadPenaltySpreadsWorkAcrossAgents() {
+        // Both requests sit next to agent 0; agent 1 is 0.5 km further away
+        double[] reqLat = {19.0, 19.0};
+        double[] reqLng = {72.8, 72.8};
+        double[] agentLat = {19.0, 19.0045};
+        double[] agentLng = {72.8, 72.8};
+
+        int[] withoutPenalty = AssignmentSolver.solve(reqLat, reqLng, agentLat, agentLng,
+                new int[]{0, 0}, new int[]{5, 5}, 0, 250_000, 16).agentOf();
+        int[] withPenalty = AssignmentSolver.solve(reqLat, reqLng, agentLat, agentLng,
+                new int[]{0, 0}, new int[]{5, 5}, 1.0, 250_000, 16).agentOf();
+
+        assertArrayEquals(new int[]{0, 0}, withoutPenalty);
+        assertNotEquals(withPenalty[0], withPenalty[1]);
+    }
+
+    // Timing and quality run; excluded from the default build, run with -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void benchmarkGreedyAgainstExact() {
+        Random random = new Random(42);
+        double[][] req = randomPoints(random, 300);
+        double[][] agents = randomPoints(random, 40);
+        int[] load = new int[40];
+        int[] capacity = new int[40];
+        Arrays.fill(capacity, 8);
+
+        long start = System.nanoTime();
+        AssignmentSolver.Solution exact = AssignmentSolver.solve(req[0], req[1], agents[0], agents[1],
+                load, capacity, 1.0, Long.MAX_VALUE, 16);
+        long exactMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        AssignmentSolver.Solution greedy = AssignmentSolver.solve(req[0], req[1], agents[0], agents[1],
+                load, capacity, 1.0, 0, 16);
+        long greedyMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(AssignmentSolver.Method.HUNGARIAN, exact.method());
+        assertEquals(AssignmentSolver.Method.GREEDY, greedy.method());
+        double exactKm = totalKm(req, agents, exact.agentOf());
+        double greedyKm = totalKm(req, agents, greedy.agentOf());
+        assertTrue(greedyKm <= exactKm * 1.5, greedyKm + " vs exact " + exactKm);
+        assertTrue(greedyMs <= exactMs, "greedy " + greedyMs + " ms vs hungarian " + exactMs + " ms");
+
+        req = randomPoints(random, 5000);
+        agents = randomPoints(random, 400);
+        capacity = new int[400];
+        Arrays.fill(capacity, 15);
+        start = System.nanoTime();
+        AssignmentSolver.Solution large = AssignmentSolver.solve(req[0], req[1], agents[0], agents[1],
+                new int[400], capacity, 1.0, 250_000, 16);
+        long largeMs = (System.nanoTime() - start) / 1_000_000;
+        long placed = Arrays.stream(large.agentOf()).filter(a -> a >= 0).count();
+        assertEquals(5000, placed);
+        assertTrue(largeMs < 10_000, "5000 requests x 400 agents: " + large.method() + " took " + largeMs + " ms");
+    }
+
+    private static double bruteForce(double[] cost, int rows, int cols, int row, boolean[] taken) {
+        if (row == rows) return 0;
+        double best = Double.MAX_VALUE;
+        for (int c = 0; c < cols; c++) {
+            if (taken[c]) continue;
+            taken[c] = true;
+            best = Math.min(best, cost[row * cols + c] + bruteForce(cost, rows, cols, row + 1, taken));
+            taken[c] = false;
+        }
+        return best;
+    }
+}
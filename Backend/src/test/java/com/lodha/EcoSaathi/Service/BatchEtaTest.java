@@ -0,0 +1,140 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Dto.BatchEta;
+import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BatchEtaTest {
+
+    @Test
+    void batchKernelMatchesSingleDistance() {
+        Random random = new Random(11);
+        int n = 1000;
+        double[] lat = new double[n], lng = new double[n], out = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = -80 + random.nextDouble() * 160;
+            lng[i] = -179 + random.nextDouble() * 358;
+        }
+
+        RequestService.haversineKm(19.07, 72.87, lat, lng, out, n);
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(RequestService.calculateHaversineDistance(19.07, 72.87, lat[i], lng[i]), out[i], 1e-6);
+        }
+    }
+
+    @Test
+    void keepsRequestedOrderAndMarksUnknownRequests() {
+        RequestRepository repository = mock(RequestRepository.class);
+        GeocodingService geocoding = mock(GeocodingService.class);
+        RequestService service = new RequestService(repository, null, null, null, null, null, null, null, geocoding, null);
+
+        when(repository.findCoordinatesByIdIn(any())).thenReturn(List.of(
+                new Object[]{1L, 19.10, 72.90},
+                new Object[]{3L, null, null},
+                new Object[]{4L, null, null}));
+
+        BatchEta eta = service.calculateEtas(19.07, 72.87, List.of(3L, 1L, 2L, 4L, 1L));
+
+        assertArrayEquals(new long[]{3, 1, 2, 4, 1}, eta.getRequestIds());
+        assertEquals(RequestService.calculateHaversineDistance(19.07, 72.87, 19.10, 72.90), eta.getDistanceKm()[1], 1e-9);
+        // Not stored yet (3, 4) or unknown (2): -1, left to the background backfill
+        assertEquals(-1, eta.getDistanceKm()[0]);
+        assertEquals(-1, eta.getEtaMinutes()[0]);
+        assertEquals(-1, eta.getDistanceKm()[2]);
+        assertEquals(-1, eta.getEtaMinutes()[3]);
+        assertEquals(eta.getDistanceKm()[1], eta.getDistanceKm()[4]);
+        assertEquals(RequestService.estimateMinutes(eta.getDistanceKm()[1]), eta.getEtaMinutes()[1]);
+        verifyNoInteractions(geocoding);
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void backfillGeocodesMissingRowsAndWrapsAround() {
+        RequestRepository repository = mock(RequestRepository.class);
+        GeocodingService geocoding = mock(GeocodingService.class);
+        RequestService service = new RequestService(repository, null, null, null, null, null, null, null, geocoding, null);
+
+        Request found = new Request();
+        found.setId(5L);
+        found.setPickupLocation("Bandra West, Mumbai");
+        Request unknown = new Request();
+        unknown.setId(9L);
+        unknown.setPickupLocation("nowhere");
+        when(repository.findMissingCoordinates(eq(0L), any(), any())).thenReturn(List.of(found, unknown));
+        when(repository.findMissingCoordinates(eq(9L), any(), any())).thenReturn(List.of());
+        when(geocoding.resolve("Bandra West, Mumbai")).thenReturn(new double[]{19.06, 72.83});
+
+        assertEquals(1, service.backfillCoordinates());
+        verify(repository).updateCoordinates(5L, 19.06, 72.83);
+
+        // The walk resumes after the last id, and starts over once it runs dry
+        assertEquals(0, service.backfillCoordinates());
+        service.backfillCoordinates();
+        verify(repository, times(2)).findMissingCoordinates(eq(0L), any(), any());
+    }
+
+    @Test
+    void rejectsOversizedBatches() {
+        RequestService service = new RequestService(mock(RequestRepository.class), null, null, null, null, null, null, null, null, null);
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i <= RequestService.MAX_ETA_BATCH; i++) ids.add(i);
+
+        assertThrows(RuntimeException.class, () -> service.calculateEtas(19.0, 72.8, ids));
+    }
+
+    // Batch kernel against the per-request result maps; excluded from the default build, run with -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void benchmarkBatchAgainstPerRequestPath() {
+        Random random = new Random(42);
+        int n = 30, rounds = 5_000;
+        double[] lat = new double[n], lng = new double[n], out = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = 18.9 + random.nextDouble() * 0.3;
+            lng[i] = 72.8 + random.nextDouble() * 0.3;
+        }
+
+        double sink = 0;
+        for (int warm = 0; warm < 2; warm++) {
+            long start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                for (int i = 0; i < n; i++) {
+                    // What calculateDistanceAndTime builds for every stop once the coordinates are known
+                    double km = RequestService.calculateHaversineDistance(19.0, 72.85, lat[i], lng[i]);
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("distanceKm", String.format("%.2f", km));
+                    result.put("estimatedTime", RequestService.formatEta(RequestService.estimateMinutes(km)));
+                    result.put("userLat", lat[i]);
+                    result.put("userLng", lng[i]);
+                    sink += result.size();
+                }
+            }
+            double perRequestUs = (System.nanoTime() - start) / 1e3 / rounds;
+
+            start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                RequestService.haversineKm(19.0, 72.85, lat, lng, out, n);
+                sink += out[round % n];
+            }
+            double batchUs = (System.nanoTime() - start) / 1e3 / rounds;
+            if (warm == 1) {
+                assertTrue(batchUs < perRequestUs, "30 stops: per-request " + perRequestUs + " us, batch " + batchUs + " us");
+            }
+        }
+        assertTrue(sink > 0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.lodha.EcoSaathi.Service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateTest {
+
+    @Test
+    void fillsSlotsAndEscapesValues() {
+        EmailTemplate template = EmailTemplate.compile("t", "<p>Hello {{name}}, #{{id}}</p>");
+
+        String html = template.bind()
+                .set("name", "<b>Tom & 'Jerry'</b>")
+                .set("id", 42L)
+                .render();
+
+        assertEquals("<p>Hello &lt;b&gt;Tom &amp; &#39;Jerry&#39;&lt;/b&gt;, #42</p>", html);
+    }
+
+    @Test
+    void rawSlotsAreInsertedAsIs() {
+        EmailTemplate template = EmailTemplate.compile("t", "<div>{{{body}}}</div>");
+
+        assertEquals("<div><p>ok</p></div>", template.bind().set("body", "<p>ok</p>").render());
+    }
+
+    @Test
+    void repeatedSlotUsesSameValueAndMissingValueRendersEmpty() {
+        EmailTemplate template = EmailTemplate.compile("t", "{{c}}|{{c}}|{{missing}}|");
+
+        assertEquals("red|red||", template.bind().set("c", "red").render());
+    }
+
+    @Test
+    void bindingsDoNotLeakBetweenRenders() {
+        EmailTemplate template = EmailTemplate.compile("t", "[{{v}}]");
+
+        assertEquals("[a]", template.bind().set("v", "a").render());
+        assertEquals("[b]", template.bind().set("v", "b").render());
+        assertEquals("[]", template.bind().render());
+    }
+
+    @Test
+    void unknownSlotAndBrokenTemplateAreRejected() {
+        EmailTemplate template = EmailTemplate.compile("t", "{{a}}");
+
+        assertThrows(RuntimeException.class, () -> template.bind().set("b", "x"));
+        assertThrows(RuntimeException.class, () -> EmailTemplate.compile("broken", "<p>{{oops</p>"));
+    }
+
+    @Test
+    void registryLoadsBundledTemplates() {
+        EmailTemplateRegistry registry = new EmailTemplateRegistry();
+
+        String html = registry.get("request-status-update").bind()
+                .set("statusColor", "#10b981")
+                .set("statusIcon", "✅")
+                .set("statusMessage", "Approved")
+                .set("userName", "Asha Rao")
+                .set("requestId", 7L)
+                .set("oldStatus", "PENDING")
+                .set("newStatus", "APPROVED")
+                .render();
+
+        assertTrue(html.contains("Hello Asha Rao!"));
+        assertTrue(html.contains("#7"));
+        assertFalse(html.contains("{{"));
+        assertThrows(RuntimeException.class, () -> registry.get("does-not-exist"));
+    }
+}
@@ -0,0 +1,179 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Config.FileStorageProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStorageServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private FileStorageService service() {
+        FileStorageProperties props = new FileStorageProperties();
+        props.setUploadDir(uploadDir.toString());
+        return new FileStorageService(props, 2);
+    }
+
+    @Test
+    void storesUnderShardedSha256Key() throws Exception {
+        FileStorageService storage = service();
+        String key = storage.store(new MockMultipartFile("files", "Photo.JPEG", "image/jpeg", "hello".getBytes()));
+
+        // sha256("hello")
+        String hash = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+        assertEquals("2c/f2/" + hash + ".jpg", key);
+        assertEquals("hello", Files.readString(storage.resolve(key)));
+        // The extension only lives in the key; the blob is named by the hash
+        assertTrue(Files.isRegularFile(uploadDir.resolve("2c/f2/" + hash)));
+        assertEquals("2c/f2/" + hash, FileStorageService.blobKey(key));
+    }
+
+    @Test
+    void sameBytesUnderDifferentExtensionsShareOneBlob() throws Exception {
+        FileStorageService storage = service();
+        String png = storage.store(new MockMultipartFile("files", "a.png", "image/png", "same".getBytes()));
+        String jpg = storage.store(new MockMultipartFile("files", "a.jpg", "image/jpeg", "same".getBytes()));
+
+        assertNotEquals(png, jpg);
+        assertEquals(storage.resolve(png), storage.resolve(jpg));
+        assertEquals(1, blobCount());
+    }
+
+    @Test
+    void blobsStoredWithTheirExtensionStillResolve() throws Exception {
+        FileStorageService storage = service();
+        String key = "2c/f2/2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824.png";
+        Files.createDirectories(uploadDir.resolve("2c/f2"));
+        Files.writeString(uploadDir.resolve(key), "hello");
+
+        assertEquals("hello", Files.readString(storage.resolve(key)));
+    }
+
+    @Test
+    void failedBatchRemovesTheBlobsItWrote() throws Exception {
+        FileStorageService storage = service();
+        String kept = storage.store(new MockMultipartFile("files", "old.png", "image/png", "already here".getBytes()));
+        String shared = storage.store(new MockMultipartFile("files", "x.png", "image/png", "x".getBytes()));
+        Files.delete(storage.resolve(shared)); // rewritten by the batch, but a row points at it
+
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "a.png", "image/png", "fresh".getBytes()),
+                new MockMultipartFile("files", "b.png", "image/png", "already here".getBytes()),
+                new MockMultipartFile("files", "c.png", "image/png", "x".getBytes()),
+                new MockMultipartFile("files", "broken.png", "image/png", "boom".getBytes()) {
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        throw new IOException("client went away");
+                    }
+                });
+
+        assertThrows(RuntimeException.class, () -> storage.storeAll(files, key -> key.equals(shared)));
+
+        // The fresh blob is gone; the one that existed before and the referenced one stay
+        assertTrue(Files.isRegularFile(storage.resolve(kept)));
+        assertTrue(Files.isRegularFile(storage.resolve(shared)));
+        assertEquals(2, blobCount());
+    }
+
+    @Test
+    void storesIdenticalContentOnce() throws Exception {
+        FileStorageService storage = service();
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "a.png", "image/png", "same".getBytes()),
+                new MockMultipartFile("files", "b.png", "image/png", "same".getBytes()),
+                new MockMultipartFile("files", "c.png", "image/png", "other".getBytes()),
+                new MockMultipartFile("files", "empty.png", "image/png", new byte[0]));
+
+        List<String> keys = storage.storeAll(files, key -> false);
+
+        assertEquals(3, keys.size());
+        assertEquals(keys.get(0), keys.get(1));
+        assertNotEquals(keys.get(0), keys.get(2));
+        assertEquals(2, blobCount());
+    }
+
+    @Test
+    void rolledBackTransactionRemovesTheBlobsItWrote() throws Exception {
+        FileStorageService storage = service();
+        String key = inTransaction(() -> storage.storeAll(List.of(
+                new MockMultipartFile("files", "a.png", "image/png", "fresh".getBytes())), k -> false).get(0),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        awaitGone(storage.resolve(key));
+        assertEquals(0, blobCount());
+
+        // A committed batch keeps its blob
+        String kept = inTransaction(() -> storage.storeAll(List.of(
+                new MockMultipartFile("files", "a.png", "image/png", "fresh".getBytes())), k -> false).get(0),
+                TransactionSynchronization.STATUS_COMMITTED);
+        assertTrue(Files.isRegularFile(storage.resolve(kept)));
+    }
+
+    @Test
+    void rollbackKeepsABlobAnotherOpenUploadHolds() throws Exception {
+        FileStorageService storage = service();
+        TransactionSynchronizationManager.initSynchronization();
+        String key;
+        try {
+            key = storage.storeAll(List.of(new MockMultipartFile("files", "a.png", "image/png", "shared".getBytes())), k -> false).get(0);
+
+            // Someone else uploads the same bytes; their row is not committed yet
+            Thread other = new Thread(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                storage.store(new MockMultipartFile("file", "b.png", "image/png", "shared".getBytes()));
+                // left open: the synchronization is never completed on this thread
+            });
+            other.start();
+            other.join();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Thread.sleep(200); // the discard runs on the I/O pool
+        assertTrue(Files.isRegularFile(storage.resolve(key)));
+    }
+
+    private static <T> T inTransaction(Callable<T> work, int outcome) throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result = work.call();
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(outcome));
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void awaitGone(Path path) throws InterruptedException {
+        for (int i = 0; i < 100 && Files.exists(path); i++) Thread.sleep(20);
+    }
+
+    private long blobCount() throws IOException {
+        try (Stream<Path> blobs = Files.walk(uploadDir)) {
+            return blobs.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void rejectsPathsOutsideUploadDir() {
+        assertThrows(RuntimeException.class, () -> service().resolve("../secret.txt"));
+    }
+}
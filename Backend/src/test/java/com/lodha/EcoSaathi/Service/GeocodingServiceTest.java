@@ -0,0 +1,115 @@
+package com.lodha.EcoSaathi.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeocodingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Local stand-in for Nominatim: fixed answers, counts calls, can be told to fail
+    static class StubGeocoder implements Geocoder {
+        final Map<String, double[]> known = new HashMap<>();
+        final AtomicInteger calls = new AtomicInteger();
+        boolean failing = false;
+
+        @Override
+        public double[] geocode(String address) {
+            calls.incrementAndGet();
+            if (failing) throw new RuntimeException("stub outage");
+            return known.get(address.toLowerCase());
+        }
+    }
+
+    private GeocodingService service(StubGeocoder stub, int size, long negativeTtlMs) {
+        return new GeocodingService(stub, size, negativeTtlMs, tempDir.resolve("geo.tsv").toString());
+    }
+
+    @Test
+    void resolvesOnceAndServesRepeatsFromCache() {
+        StubGeocoder stub = new StubGeocoder();
+        stub.known.put("mg road, indore", new double[]{22.72, 75.86});
+        GeocodingService geo = service(stub, 100, 60_000);
+
+        double[] first = geo.resolve("MG Road, Indore");
+        double[] second = geo.resolve("  mg road ,  INDORE. ");
+
+        assertArrayEquals(new double[]{22.72, 75.86}, first);
+        assertArrayEquals(first, second);
+        assertEquals(1, stub.calls.get());
+    }
+
+    @Test
+    void peekOnlyAnswersFromTheCache() {
+        StubGeocoder stub = new StubGeocoder();
+        stub.known.put("mg road, indore", new double[]{22.72, 75.86});
+        GeocodingService geo = service(stub, 100, 60_000);
+
+        assertNull(geo.peek("MG Road, Indore"));
+        assertEquals(0, stub.calls.get());
+
+        geo.resolve("MG Road, Indore");
+        assertArrayEquals(new double[]{22.72, 75.86}, geo.peek("mg road, indore."));
+        assertEquals(1, stub.calls.get());
+    }
+
+    @Test
+    void cachesMissesAndFailuresUntilTtlExpires() throws Exception {
+        StubGeocoder stub = new StubGeocoder();
+        stub.failing = true;
+        GeocodingService geo = service(stub, 100, 50);
+
+        assertNull(geo.resolve("nowhere"));
+        assertNull(geo.resolve("nowhere"));
+        assertEquals(1, stub.calls.get());
+
+        Thread.sleep(80);
+        stub.failing = false;
+        stub.known.put("nowhere", new double[]{1.0, 2.0});
+        assertArrayEquals(new double[]{1.0, 2.0}, geo.resolve("nowhere"));
+        assertEquals(2, stub.calls.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondCapacity() {
+        StubGeocoder stub = new StubGeocoder();
+        for (int i = 0; i < 4; i++) stub.known.put("addr " + i, new double[]{i, i});
+        GeocodingService geo = service(stub, 3, 60_000);
+
+        geo.resolve("addr 0");
+        geo.resolve("addr 1");
+        geo.resolve("addr 2");
+        geo.resolve("addr 0");   // touch 0 so 1 is the eldest
+        geo.resolve("addr 3");   // evicts 1
+
+        assertEquals(3, geo.size());
+        int before = stub.calls.get();
+        geo.resolve("addr 0");
+        assertEquals(before, stub.calls.get());
+        geo.resolve("addr 1");
+        assertEquals(before + 1, stub.calls.get());
+    }
+
+    @Test
+    void survivesRestartThroughCacheFile() {
+        StubGeocoder stub = new StubGeocoder();
+        stub.known.put("vijay nagar, indore", new double[]{22.75, 75.89});
+        GeocodingService geo = service(stub, 100, 60_000);
+        geo.resolve("Vijay Nagar, Indore");
+        geo.shutdown();
+
+        StubGeocoder fresh = new StubGeocoder();
+        GeocodingService restarted = service(fresh, 100, 60_000);
+
+        assertArrayEquals(new double[]{22.75, 75.89}, restarted.resolve("vijay nagar, indore"));
+        assertEquals(0, fresh.calls.get());
+    }
+}
@@ -0,0 +1,77 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Config.FileStorageProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageDerivativeService derivatives;
+
+    @BeforeEach
+    void setUp() {
+        FileStorageProperties props = new FileStorageProperties();
+        props.setUploadDir(uploadDir.toString());
+        // 1 MP decode budget so a 3000x3000 source has to be subsampled
+        derivatives = new ImageDerivativeService(new FileStorageService(props, 1), 1, 1, 1_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        derivatives.shutdown();
+    }
+
+    private Path png(int width, int height) throws Exception {
+        Path file = uploadDir.resolve("big.png");
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+        return file;
+    }
+
+    @Test
+    void subsamplesSourcesAboveTheDecodeBudget() throws Exception {
+        BufferedImage decoded = derivatives.decode(png(3000, 3000));
+
+        assertEquals(1000, decoded.getWidth());
+        assertEquals(1000, decoded.getHeight());
+    }
+
+    @Test
+    void decodesSmallSourcesAtFullSize() throws Exception {
+        BufferedImage decoded = derivatives.decode(png(640, 480));
+
+        assertEquals(640, decoded.getWidth());
+        assertEquals(480, decoded.getHeight());
+    }
+
+    @Test
+    void buildsVariantsFromASubsampledSource() throws Exception {
+        png(3000, 2000);
+
+        derivatives.generate("big.png");
+
+        Path thumb = derivatives.findVariant("big.png", ImageDerivativeService.Variant.THUMB);
+        assertNotNull(thumb);
+        assertEquals(200, ImageIO.read(thumb.toFile()).getWidth());
+        assertTrue(Files.isRegularFile(uploadDir.resolve("big_medium.jpg")));
+    }
+
+    @Test
+    void unreadableFilesAreSkipped() throws Exception {
+        Path file = uploadDir.resolve("notes.png");
+        Files.writeString(file, "not an image");
+
+        assertNull(derivatives.decode(file));
+    }
+}
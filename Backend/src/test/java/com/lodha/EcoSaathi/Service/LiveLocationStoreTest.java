@@ -0,0 +1,251 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.PickupPerson;
+import com.lodha.EcoSaathi.Repository.PickupPersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LiveLocationStoreTest {
+
+    private PickupPersonRepository repository;
+    private JdbcTemplate jdbcTemplate;
+    private LiveLocationStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PickupPersonRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(repository.existsById(anyLong())).thenAnswer(inv -> (Long) inv.getArgument(0) > 0);
+        store = new LiveLocationStore(repository, jdbcTemplate, 4096, 0.05, 40);
+    }
+
+    @Test
+    void keepsLatestPositionAndChecksAgentOnce() {
+        store.update(1L, 19.0, 72.8);
+        store.update(1L, 19.1, 72.9);
+
+        LiveLocationStore.Location location = store.get(1L);
+        assertEquals(19.1, location.latitude());
+        assertEquals(72.9, location.longitude());
+        assertNotNull(location.updatedAt());
+        verify(repository, times(1)).existsById(1L);
+
+        assertThrows(RuntimeException.class, () -> store.update(-5L, 1, 1));
+        assertThrows(RuntimeException.class, () -> store.update(1L, 91, 0));
+    }
+
+    @Test
+    void fallsBackToStoredPositionUntilAgentReports() {
+        PickupPerson person = new PickupPerson();
+        person.setId(2L);
+        person.setLatitude(18.5);
+        person.setLongitude(73.8);
+
+        assertEquals(18.5, store.locate(person).latitude());
+        assertNull(store.locate(person).updatedAt());
+
+        store.update(2L, 18.6, 73.9);
+        assertEquals(18.6, store.locate(person).latitude());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesOnlyAgentsThatMovedSinceLastFlush() {
+        store.update(1L, 10, 10);
+        store.update(2L, 20, 20);
+        store.update(2L, 21, 21);
+
+        assertEquals(2, store.flush());
+        assertEquals(0, store.flush());
+
+        store.update(2L, 22, 22);
+        assertEquals(1, store.flush());
+
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE pickup_persons SET latitude"), anyList());
+    }
+
+    @Test
+    void failedFlushIsRetriedNextTime() {
+        store.update(1L, 10, 10);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+        assertEquals(0, store.flush());
+
+        reset(jdbcTemplate);
+        assertEquals(1, store.flush());
+    }
+
+    @Test
+    void readersNeverSeeTornPositions() throws Exception {
+        int writers = 4;
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger torn = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(writers);
+
+        store.update(1L, 0, 0);
+        for (int w = 0; w < writers; w++) {
+            final int seed = w;
+            new Thread(() -> {
+                // Every write stores the same value in both fields
+                for (int i = 0; i < 50_000; i++) {
+                    double v = (seed * 50_000 + i) % 90;
+                    store.update(1L, v, v);
+                }
+                done.countDown();
+            }).start();
+        }
+        Thread reader = new Thread(() -> {
+            while (!stop.get()) {
+                LiveLocationStore.Location l = store.get(1L);
+                if (l.latitude() != l.longitude()) torn.incrementAndGet();
+            }
+        });
+        reader.start();
+
+        done.await();
+        stop.set(true);
+        reader.join();
+        assertEquals(0, torn.get());
+        assertEquals(1, store.trackedAgents());
+    }
+
+    @Test
+    void seededPositionsAreSearchableButNotRewritten() {
+        store.seed(5L, 19.00, 72.80);
+        store.seed(6L, 19.20, 72.80);
+        store.update(7L, 19.05, 72.80);
+
+        List<AgentSpatialIndex.Neighbor> nearest = store.nearest(19.01, 72.80, 2);
+        assertEquals(List.of(5L, 7L), nearest.stream().map(AgentSpatialIndex.Neighbor::agentId).toList());
+        assertNull(store.get(5L).updatedAt());
+        verify(repository, never()).existsById(5L);
+
+        // Only the reported agent is dirty
+        assertEquals(1, store.flush());
+    }
+
+    @Test
+    void forgottenAgentIsNotFlushed() {
+        store.update(3L, 1, 1);
+        store.forget(3L);
+
+        assertNull(store.get(3L));
+        assertEquals(0, store.flush());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(List.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void forgottenSlotIsReusedWithoutTheOldPosition() {
+        // Capacity rounds up to one chunk of 1024 slots
+        store = new LiveLocationStore(repository, jdbcTemplate, 1, 0.05, 40);
+        for (long id = 1; id <= 1024; id++) store.update(id, 10, 10);
+        assertThrows(RuntimeException.class, () -> store.update(2000L, 1, 1));
+        store.flush();
+
+        store.forget(7L);
+        store.update(2000L, 20, 20);
+
+        assertEquals(20, store.get(2000L).latitude());
+        assertNull(store.get(7L));
+        reset(jdbcTemplate);
+        assertEquals(1, store.flush());
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) ->
+                rows.size() == 1 && rows.get(0)[2].equals(2000L)));
+    }
+
+    @Test
+    void racingFirstReportsDoNotBurnSlots() throws Exception {
+        store = new LiveLocationStore(repository, jdbcTemplate, 1, 0.05, 40);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (long id = 1; id <= 1000; id++) store.update(id, 1, 1);
+                } catch (InterruptedException ignored) {
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        // Every agent raced on its first report, yet the rest of the chunk is still free
+        for (long id = 1001; id <= 1024; id++) store.update(id, 1, 1);
+        assertEquals(1024, store.trackedAgents());
+    }
+
+    // Store whose index parks the agent's next move() until released, to line up a competing call behind it
+    private CountDownLatch parkNextMove(long agentId, CountDownLatch parked) {
+        AgentSpatialIndex index = spy(new AgentSpatialIndex(0.05, 40));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean armed = new AtomicBoolean(true);
+        doAnswer(inv -> {
+            if ((long) inv.getArgument(0) == agentId && armed.getAndSet(false)) {
+                parked.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return inv.callRealMethod();
+        }).when(index).move(anyLong(), anyDouble(), anyDouble());
+        store = new LiveLocationStore(repository, jdbcTemplate, 4096, index);
+        return release;
+    }
+
+    @Test
+    void updateInFlightDuringForgetDoesNotPutTheAgentBack() throws Exception {
+        CountDownLatch parked = new CountDownLatch(1);
+        CountDownLatch release = parkNextMove(1L, parked);
+
+        Thread updater = new Thread(() -> store.update(1L, 19.0, 72.8));
+        updater.start();
+        assertTrue(parked.await(10, TimeUnit.SECONDS));
+
+        Thread forgetter = new Thread(() -> store.forget(1L));
+        forgetter.start();
+        forgetter.join(200); // forget has to wait for the update that holds the slot
+        release.countDown();
+        updater.join();
+        forgetter.join();
+
+        assertNull(store.get(1L));
+        assertEquals(0, store.trackedAgents());
+        assertEquals(0, store.indexedAgents());
+    }
+
+    @Test
+    void racingUpdatesLeaveTheAgentInTheCellOfItsLastPosition() throws Exception {
+        CountDownLatch parked = new CountDownLatch(1);
+        CountDownLatch release = parkNextMove(1L, parked);
+        // Neighbours next to both spots: a stale cell for agent 1 would make one of them win the lookup
+        store.update(2L, 19.001, 72.8);
+        store.update(3L, 21.001, 72.8);
+
+        Thread first = new Thread(() -> store.update(1L, 19.0, 72.8));
+        first.start();
+        assertTrue(parked.await(10, TimeUnit.SECONDS));
+
+        Thread second = new Thread(() -> store.update(1L, 21.0, 72.8));
+        second.start();
+        second.join(200); // the second update has to wait for the first one's index move
+        release.countDown();
+        first.join();
+        second.join();
+
+        assertEquals(21.0, store.get(1L).latitude());
+        assertEquals(1L, store.nearest(21.0, 72.8, 1).get(0).agentId());
+    }
+}
@@ -0,0 +1,123 @@
+package com.lodha.EcoSaathi.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationTrailLogTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long T0 = 1_760_000_400_000L - (1_760_000_400_000L % HOUR); // aligned to an hour
+
+    @TempDir
+    Path dir;
+
+    private LocationTrailLog log;
+
+    @AfterEach
+    void tearDown() {
+        if (log != null) log.shutdown();
+    }
+
+    private static LocalDateTime at(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void replaysOneAgentWithinRangeAcrossHourlySegments() throws IOException {
+        log = new LocationTrailLog(dir.toString(), 60, 1000, 30, 20000);
+        for (int i = 0; i < 180; i++) {
+            long t = T0 + i * 60_000L; // one point a minute for three hours
+            log.append(1L, t, 19.0 + i * 1e-4, 72.8);
+            log.append(2L, t, 18.5, 73.8);
+        }
+        assertEquals(3, segmentFiles());
+
+        List<LocationTrailLog.TrailPoint> trail = log.replay(1L, at(T0 + 30 * 60_000L), at(T0 + 150 * 60_000L));
+        assertEquals(121, trail.size());
+        assertEquals(19.003, trail.get(0).latitude(), 1e-7);
+        assertEquals(72.8, trail.get(0).longitude(), 1e-7);
+        assertEquals(at(T0 + 150 * 60_000L), trail.get(120).at());
+    }
+
+    @Test
+    void fullSegmentRollsOverAndClosedSegmentsKeepTheirZeroTail() throws IOException {
+        log = new LocationTrailLog(dir.toString(), 60, 10, 30, 20000);
+        for (int i = 0; i < 25; i++) {
+            log.append(7L, T0 + i, 1.0, 2.0);
+        }
+        log.shutdown();
+
+        assertEquals(3, segmentFiles());
+        try (Stream<Path> files = Files.list(dir)) {
+            long bytes = files.mapToLong(p -> p.toFile().length()).sum();
+            assertEquals(3L * 10 * LocationTrailLog.RECORD_BYTES, bytes);
+        }
+
+        // A fresh instance (e.g. after restart) still replays the old segments
+        log = new LocationTrailLog(dir.toString(), 60, 10, 30, 20000);
+        assertEquals(25, log.replay(7L, at(T0), at(T0 + HOUR)).size());
+    }
+
+    @Test
+    void unwritableDirectoryDropsThePointInsteadOfThrowing() throws IOException {
+        Path trailDir = dir.resolve("trail");
+        log = new LocationTrailLog(trailDir.toString(), 60, 1000, 30, 20000);
+        Files.delete(trailDir);
+        Files.writeString(trailDir, "not a directory");
+
+        assertDoesNotThrow(() -> log.append(1L, T0, 1.0, 2.0));
+        assertEquals(1L, log.getMetrics().get("pointsDropped"));
+
+        // Once the directory is back the next point opens a segment as usual
+        Files.delete(trailDir);
+        Files.createDirectories(trailDir);
+        log.append(1L, T0 + 1, 1.0, 2.0);
+        assertEquals(1, log.replay(1L, at(T0), at(T0 + HOUR)).size());
+    }
+
+    @Test
+    void purgesOnlySegmentsPastRetention() throws IOException {
+        log = new LocationTrailLog(dir.toString(), 60, 1000, 1, 20000);
+        long now = System.currentTimeMillis();
+        log.append(1L, now - 3 * 86_400_000L, 1, 1);
+        log.append(1L, now, 1, 1);
+
+        assertEquals(1, log.purgeOldSegments());
+        assertEquals(1, segmentFiles());
+    }
+
+    // Volume run; excluded from the default build, run with -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void appendThroughput() {
+        int points = 500_000;
+        log = new LocationTrailLog(dir.toString(), 60, points, 30, 20000);
+        long start = System.nanoTime();
+        for (int i = 0; i < points; i++) {
+            log.append(1 + (i % 500), T0 + i, 19.0 + (i % 1000) * 1e-5, 72.8);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(millis < 10_000, points + " appends took " + millis + " ms");
+        assertEquals(1000, log.replay(42L, at(T0), at(T0 + points)).size());
+    }
+}
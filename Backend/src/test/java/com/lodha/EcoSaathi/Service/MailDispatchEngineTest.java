@@ -0,0 +1,105 @@
+package com.lodha.EcoSaathi.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailDispatchEngineTest {
+
+    private FakeSmtpServer server;
+    private MailDispatchEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeSmtpServer();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (engine != null) engine.shutdown();
+        server.close();
+    }
+
+    private MailDispatchEngine newEngine(int threads, int maxPerConnection) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(server.getPort());
+        Properties props = new Properties();
+        props.put("mail.smtp.connectiontimeout", "2000");
+        props.put("mail.smtp.timeout", "2000");
+        sender.setJavaMailProperties(props);
+        return new MailDispatchEngine(sender, "noreply@ecosaathi.test", "EcoSaathi", threads, 1000, maxPerConnection, 30000);
+    }
+
+    private static List<MailDispatchEngine.Mail> mails(int n) {
+        List<MailDispatchEngine.Mail> mails = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            mails.add(new MailDispatchEngine.Mail("user" + i + "@ecosaathi.test", "Request #" + i, "<p>Hello " + i + "</p>"));
+        }
+        return mails;
+    }
+
+    @Test
+    void reusesPooledConnectionsForWholeBatch() {
+        engine = newEngine(4, 10_000);
+        int n = 1000;
+
+        List<Exception> errors = engine.sendAll(mails(n));
+
+        assertTrue(errors.stream().allMatch(e -> e == null));
+        assertEquals(n, server.messages.get());
+        assertTrue(server.connections.get() <= 4, "connections: " + server.connections.get());
+    }
+
+    @Test
+    void limitOfOneOpensAConnectionPerMessage() {
+        engine = newEngine(4, 1);
+        int n = 300;
+
+        List<Exception> errors = engine.sendAll(mails(n));
+
+        assertTrue(errors.stream().allMatch(e -> e == null));
+        assertEquals(n, server.messages.get());
+        assertEquals(n, server.connections.get());
+    }
+
+    @Test
+    void rejectedRecipientFailsAloneAndKeepsTheConnection() {
+        engine = newEngine(1, 100);
+        List<MailDispatchEngine.Mail> batch = new ArrayList<>(mails(3));
+        batch.set(1, new MailDispatchEngine.Mail("reject-me@ecosaathi.test", "Hi", "<p>x</p>"));
+
+        List<Exception> errors = engine.sendAll(batch);
+
+        assertNull(errors.get(0));
+        assertNotNull(errors.get(1));
+        assertNull(errors.get(2));
+        assertEquals(2, server.messages.get());
+        assertEquals(1, server.connections.get());
+        Map<String, Object> metrics = engine.getMetrics();
+        assertEquals(2L, metrics.get("sent"));
+        assertEquals(1L, metrics.get("failed"));
+    }
+
+    @Test
+    void reconnectsWhenServerDroppedTheConnection() throws Exception {
+        engine = newEngine(1, 100);
+        assertNull(engine.sendAll(mails(1)).get(0));
+
+        server.dropAllConnections();
+        Thread.sleep(50);
+
+        assertNull(engine.sendAll(mails(1)).get(0));
+        assertEquals(2, server.messages.get());
+        assertEquals(2L, engine.getMetrics().get("connectionsOpened"));
+        assertEquals(1L, engine.getMetrics().get("retriedOnNewConnection"));
+    }
+}
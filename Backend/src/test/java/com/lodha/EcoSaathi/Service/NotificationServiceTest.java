@@ -0,0 +1,88 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.Notification;
+import com.lodha.EcoSaathi.Entity.User;
+import com.lodha.EcoSaathi.Repository.NotificationRepository;
+import com.lodha.EcoSaathi.Repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.notifications.retention-days=30",
+        "app.notifications.retention-chunk-size=10",
+        "app.notifications.retention-pause-ms=0"
+})
+@Import({NotificationService.class, NotificationPushService.class, UnreadCountService.class,
+        NotificationWriter.class})
+// Real commits, so the after-commit counter updates run as in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationServiceTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("retention@test.com");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private void add(int count, boolean read, int ageDays) {
+        for (int i = 0; i < count; i++) {
+            Notification n = new Notification();
+            n.setUser(user);
+            n.setMessage("m");
+            n.setRead(read);
+            n.setCreatedAt(LocalDateTime.now().minusDays(ageDays));
+            notificationRepository.save(n);
+        }
+    }
+
+    @Test
+    void purgesOnlyOldReadNotificationsAcrossChunks() {
+        add(25, true, 45);   // purged, takes three chunks
+        add(5, false, 45);   // unread: kept
+        add(7, true, 5);     // recent: kept
+
+        assertEquals(25, notificationService.purgeOldReadNotifications());
+        assertEquals(12, notificationRepository.count());
+        assertEquals(0, notificationService.purgeOldReadNotifications());
+    }
+
+    @Test
+    void clearAllDeletesWithSingleStatementAndResetsCount() {
+        add(3, false, 1);
+        assertEquals(3, notificationService.getUnreadCount(user.getId()));
+
+        notificationService.clearAll(user.getId());
+
+        assertEquals(0, notificationRepository.count());
+        assertEquals(0, notificationService.getUnreadCount(user.getId()));
+    }
+}
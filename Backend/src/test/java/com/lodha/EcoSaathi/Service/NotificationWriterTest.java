@@ -0,0 +1,145 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.Notification;
+import com.lodha.EcoSaathi.Entity.User;
+import com.lodha.EcoSaathi.Repository.NotificationRepository;
+import com.lodha.EcoSaathi.Repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.notifications.writer.batch-size=100"
+})
+@Import({NotificationWriter.class, UnreadCountService.class, NotificationPushService.class})
+// The writer commits on its own connection, so the test must not hold a transaction open
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationWriterTest {
+
+    @Autowired
+    private NotificationWriter writer;
+
+    @Autowired
+    private UnreadCountService unreadCountService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("writer@test.com");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        userRepository.deleteAll();
+        unreadCountService.forget(user.getId());
+    }
+
+    @Test
+    void writesQueuedRowsInBatchesWithGeneratedIds() {
+        unreadCountService.get(user.getId()); // cached at 0, so increments are visible
+        for (int i = 0; i < 250; i++) {
+            writer.submit(user.getId(), "n" + i, "INFO");
+        }
+        writer.flush();
+
+        List<Notification> stored = notificationRepository.findByUserIdOrderByIdDesc(user.getId(), PageRequest.of(0, 300));
+        assertEquals(250, stored.size());
+        Set<Long> ids = new HashSet<>();
+        stored.forEach(n -> ids.add(n.getId()));
+        assertEquals(250, ids.size());
+        assertEquals(250, unreadCountService.get(user.getId()));
+        assertFalse(stored.get(0).isRead());
+    }
+
+    @Test
+    void badRowDoesNotSinkTheBatch() {
+        long skipped = metric("skippedRows"), failed = metric("failedRows");
+        writer.submit(user.getId(), "ok", "INFO");
+        writer.submit(-1L, "no such user", "INFO");
+        writer.submit(user.getId(), "also ok", "INFO");
+        writer.flush();
+
+        assertEquals(2, notificationRepository.count());
+        assertEquals(skipped + 1, metric("skippedRows"));
+        assertEquals(failed, metric("failedRows"));
+    }
+
+    @Test
+    void rowsForADeletedUserAreSkipped() {
+        long skipped = metric("skippedRows"), failed = metric("failedRows");
+        User gone = new User();
+        gone.setEmail("gone@test.com");
+        gone = userRepository.save(gone);
+        // Deleted before its row is queued: the live worker may write at any moment, so this is
+        // the only order that is deterministic, and the batch sees the same FK failure either way
+        userRepository.delete(gone);
+
+        writer.submit(user.getId(), "kept", "INFO");
+        writer.submit(gone.getId(), "for a deleted user", "INFO");
+        writer.submit(user.getId(), "kept too", "INFO");
+        writer.flush();
+
+        assertEquals(2, notificationRepository.findByUserIdOrderByIdDesc(user.getId(), PageRequest.of(0, 10)).size());
+        assertEquals(2, notificationRepository.count());
+        assertEquals(skipped + 1, metric("skippedRows"));
+        assertEquals(failed, metric("failedRows"));
+    }
+
+    // Metrics are per writer bean, which the test context shares across tests
+    private long metric(String name) {
+        return (Long) writer.getMetrics().get(name);
+    }
+
+    // Timing side-by-side; excluded from the default build, run with -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void batchedWritesBeatPerRowSaves() {
+        int rows = 2000;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            Notification n = new Notification();
+            n.setUser(user);
+            n.setMessage("row " + i);
+            n.setType("INFO");
+            notificationRepository.save(n);
+        }
+        long perRowNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            writer.submit(user.getId(), "batched " + i, "INFO");
+        }
+        writer.flush();
+        long batchedNanos = System.nanoTime() - start;
+
+        assertEquals(2L * rows, notificationRepository.count());
+        assertTrue((double) writer.getMetrics().get("avgBatchSize") > 1.0);
+        assertTrue(batchedNanos < perRowNanos,
+                "batched " + batchedNanos / 1_000_000 + " ms vs per-row " + perRowNanos / 1_000_000 + " ms");
+    }
+}
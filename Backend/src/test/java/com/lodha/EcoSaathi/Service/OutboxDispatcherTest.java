@@ -0,0 +1,164 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.OutboxMessage;
+import com.lodha.EcoSaathi.Entity.OutboxStatus;
+import com.lodha.EcoSaathi.Repository.OutboxMessageRepository;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({OutboxService.class, OutboxDispatcher.class, EmailCoalescer.class, EmailTemplateRegistry.class})
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @MockitoBean
+    private MailDispatchEngine mailDispatchEngine;
+
+    @Test
+    void deliversQueuedEmailAndMarksItSent() {
+        when(mailDispatchEngine.sendAll(anyList())).thenReturn(Collections.singletonList(null));
+        outboxService.enqueueEmail("user@test.com", "Hello", "<p>hi</p>");
+
+        outboxDispatcher.dispatch();
+
+        verify(mailDispatchEngine, times(1)).sendAll(List.of(new MailDispatchEngine.Mail("user@test.com", "Hello", "<p>hi</p>")));
+        OutboxMessage message = outboxMessageRepository.findAll().get(0);
+        assertEquals(OutboxStatus.SENT, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertNotNull(message.getSentAt());
+        assertEquals(0L, outboxService.getStats().get("pending"));
+    }
+
+    @Test
+    void failedDeliveryIsRetriedLaterWithBackoff() {
+        when(mailDispatchEngine.sendAll(anyList())).thenReturn(List.of(new MessagingException("smtp down")));
+        outboxService.enqueueEmail("user@test.com", "Hello", "<p>hi</p>");
+
+        outboxDispatcher.dispatch();
+        // Not due yet: the second run must not hit SMTP again
+        outboxDispatcher.dispatch();
+
+        verify(mailDispatchEngine, times(1)).sendAll(anyList());
+        OutboxMessage message = outboxMessageRepository.findAll().get(0);
+        assertEquals(OutboxStatus.PENDING, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertTrue(message.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertTrue(message.getLastError().contains("smtp down"));
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        when(mailDispatchEngine.sendAll(anyList())).thenReturn(List.of(new MessagingException("mailbox unavailable")));
+        outboxService.enqueueEmail("user@test.com", "Hello", "<p>hi</p>");
+        OutboxMessage message = outboxMessageRepository.findAll().get(0);
+        message.setAttempts(7);
+        outboxMessageRepository.save(message);
+
+        outboxDispatcher.dispatch();
+
+        assertEquals(OutboxStatus.FAILED, outboxMessageRepository.findAll().get(0).getStatus());
+        assertEquals(1L, outboxService.getStats().get("failed"));
+    }
+
+    @Test
+    void skipsEmailsWithoutRecipient() {
+        outboxService.enqueueEmail(null, "Hello", "<p>hi</p>");
+        assertEquals(0, outboxMessageRepository.count());
+    }
+
+    @Test
+    void mergesRoutineUpdatesForOneRecipientIntoDigest() {
+        when(mailDispatchEngine.sendAll(anyList())).thenAnswer(inv -> {
+            List<?> mails = inv.getArgument(0);
+            return Collections.nCopies(mails.size(), null);
+        });
+        outboxService.enqueueEmail("asha@test.com", "Approved", "<html><body><p>Request #1 approved</p></body></html>", true);
+        outboxService.enqueueEmail("asha@test.com", "Scheduled", "<html><body><p>Request #1 scheduled</p></body></html>", true);
+        outboxService.enqueueEmail("asha@test.com", "Assigned", "<html><body><p>Agent assigned</p></body></html>", true);
+        outboxService.enqueueEmail("ravi@test.com", "Approved", "<html><body><p>Request #2 approved</p></body></html>", true);
+        outboxService.enqueueEmail("asha@test.com", "OTP", "<p>123456</p>");
+        // Window elapsed
+        List<OutboxMessage> all = outboxMessageRepository.findAll();
+        all.forEach(m -> m.setNextAttemptAt(LocalDateTime.now().minusSeconds(1)));
+        outboxMessageRepository.saveAll(all);
+
+        outboxDispatcher.dispatch();
+
+        ArgumentCaptor<List<MailDispatchEngine.Mail>> sent = ArgumentCaptor.forClass(List.class);
+        verify(mailDispatchEngine).sendAll(sent.capture());
+        List<MailDispatchEngine.Mail> mails = sent.getValue();
+        assertEquals(3, mails.size());
+
+        MailDispatchEngine.Mail digest = mails.stream().filter(m -> m.subject().contains("3 updates")).findFirst().orElseThrow();
+        assertEquals("asha@test.com", digest.to());
+        assertTrue(digest.html().contains("Request #1 approved"));
+        assertTrue(digest.html().contains("Request #1 scheduled"));
+        assertTrue(digest.html().contains("Agent assigned"));
+        assertTrue(mails.stream().anyMatch(m -> m.subject().equals("OTP")));
+        assertTrue(mails.stream().anyMatch(m -> m.to().equals("ravi@test.com") && m.subject().equals("Approved")));
+        assertEquals(2L, outboxService.getStats().get("merged"));
+    }
+
+    // Real commits: a crash between coalescing and sending must not lose the digest
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void digestSurvivesASendThatBlowsUp() {
+        try {
+            when(mailDispatchEngine.sendAll(anyList()))
+                    .thenThrow(new IllegalStateException("engine crashed"))
+                    .thenAnswer(inv -> Collections.nCopies(((List<?>) inv.getArgument(0)).size(), null));
+            outboxService.enqueueEmail("asha@test.com", "Approved", "<html><body><p>Request #1 approved</p></body></html>", true);
+            outboxService.enqueueEmail("asha@test.com", "Scheduled", "<html><body><p>Request #1 scheduled</p></body></html>", true);
+            List<OutboxMessage> all = outboxMessageRepository.findAll();
+            all.forEach(m -> m.setNextAttemptAt(LocalDateTime.now().minusSeconds(1)));
+            outboxMessageRepository.saveAll(all);
+
+            assertThrows(IllegalStateException.class, () -> outboxDispatcher.dispatch());
+            outboxDispatcher.dispatch();
+
+            ArgumentCaptor<List<MailDispatchEngine.Mail>> sent = ArgumentCaptor.forClass(List.class);
+            verify(mailDispatchEngine, times(2)).sendAll(sent.capture());
+            List<MailDispatchEngine.Mail> retried = sent.getAllValues().get(1);
+            assertEquals(1, retried.size());
+            assertTrue(retried.get(0).subject().contains("2 updates"));
+            assertTrue(retried.get(0).html().contains("Request #1 approved"));
+            assertTrue(retried.get(0).html().contains("Request #1 scheduled"));
+            assertEquals(1L, outboxService.getStats().get("merged"));
+            assertEquals(1L, outboxService.getStats().get("sent"));
+        } finally {
+            outboxMessageRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void routineUpdatesWaitForTheWindow() {
+        outboxService.enqueueEmail("asha@test.com", "Approved", "<p>x</p>", true);
+
+        outboxDispatcher.dispatch();
+
+        verify(mailDispatchEngine, never()).sendAll(anyList());
+    }
+}
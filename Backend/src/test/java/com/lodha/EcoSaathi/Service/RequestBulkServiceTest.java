@@ -0,0 +1,203 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Dto.BulkActionResult;
+import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import com.lodha.EcoSaathi.Entity.User;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import com.lodha.EcoSaathi.Repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({RequestService.class, RequestStateMachine.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RequestBulkServiceTest {
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @MockitoBean
+    private ImageDerivativeService imageDerivativeService;
+
+    @MockitoBean
+    private PickupPersonService pickupPersonService;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private RequestStatsService requestStatsService;
+
+    @MockitoBean
+    private GeocodingService geocodingService;
+
+    // Id whose row gets a concurrent write between the batch's read and its flush
+    private final AtomicReference<Long> raceOn = new AtomicReference<>();
+
+    private RequestBulkService bulkService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("bulk@test.com");
+        user.setFirstName("Bulk");
+        user.setLastName("Test");
+        user = userRepository.save(user);
+
+        bulkService = new RequestBulkService(racingRepository(), requestService, pickupPersonService,
+                requestStatsService, emailService, notificationService, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private Request newRequest(RequestStatus status) {
+        Request request = new Request();
+        request.setUser(user);
+        request.setType("E-Waste");
+        request.setStatus(status);
+        return requestRepository.save(request);
+    }
+
+    // Delegates to the real repository; after the batch has loaded its rows, another transaction edits one of them
+    private RequestRepository racingRepository() {
+        return (RequestRepository) Proxy.newProxyInstance(
+                RequestRepository.class.getClassLoader(),
+                new Class<?>[]{RequestRepository.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(requestRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    Long id = method.getName().equals("findAllWithUserByIdIn") ? raceOn.getAndSet(null) : null;
+                    if (id != null) {
+                        Thread writer = new Thread(() -> {
+                            Request other = requestRepository.findById(id).orElseThrow();
+                            other.setDescription("edited concurrently");
+                            requestRepository.save(other);
+                        });
+                        writer.start();
+                        writer.join();
+                    }
+                    return result;
+                });
+    }
+
+    @Test
+    void mixedBatchAppliesValidTransitionsAndReportsTheRest() {
+        Long first = newRequest(RequestStatus.PENDING).getId();
+        Long second = newRequest(RequestStatus.PENDING).getId();
+        Long done = newRequest(RequestStatus.COMPLETED).getId();
+        Long missing = done + 1000;
+
+        List<BulkActionResult> results = bulkService.bulkApprove(List.of(first, done, second, missing, first));
+
+        assertEquals(List.of(first, done, second, missing), results.stream().map(BulkActionResult::getId).toList());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(RequestStatus.APPROVED, results.get(0).getStatus());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(RequestStatus.COMPLETED, results.get(1).getStatus());
+        assertEquals("Request #" + done + " cannot move from COMPLETED to APPROVED.", results.get(1).getError());
+        assertTrue(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+        assertNull(results.get(3).getStatus());
+
+        assertEquals(RequestStatus.APPROVED, requestRepository.findStatusById(first));
+        assertEquals(RequestStatus.APPROVED, requestRepository.findStatusById(second));
+        assertEquals(RequestStatus.COMPLETED, requestRepository.findStatusById(done));
+        assertEquals(1L, requestRepository.findById(first).orElseThrow().getVersion());
+        assertEquals(0L, requestRepository.findById(done).orElseThrow().getVersion());
+
+        // One grouped notification for the user, one email per changed request
+        verify(notificationService).createNotification(any(User.class),
+                eq("Great News! Your Requests #" + first + ", #" + second + " are APPROVED."), eq("SUCCESS"));
+        verify(emailService, times(2)).sendRequestStatusUpdateEmail(anyString(), anyString(), anyLong(),
+                eq("PENDING"), eq("APPROVED"));
+    }
+
+    @Test
+    void concurrentVersionBumpFallsBackToOneByOne() {
+        Long raced = newRequest(RequestStatus.PENDING).getId();
+        Long other = newRequest(RequestStatus.PENDING).getId();
+        Long done = newRequest(RequestStatus.COMPLETED).getId();
+        raceOn.set(raced);
+
+        List<BulkActionResult> results = bulkService.bulkApprove(List.of(raced, other, done));
+
+        assertNull(raceOn.get(), "the concurrent write must have happened");
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(RequestStatus.APPROVED, results.get(0).getStatus());
+        assertTrue(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertEquals(RequestStatus.COMPLETED, results.get(2).getStatus());
+        assertEquals("Only PENDING requests can be APPROVED.", results.get(2).getError());
+
+        // The batch rolled back as a whole, so the concurrent edit survives and each row moved exactly once
+        Request after = requestRepository.findById(raced).orElseThrow();
+        assertEquals("edited concurrently", after.getDescription());
+        assertEquals(RequestStatus.APPROVED, after.getStatus());
+        assertEquals(2L, after.getVersion());
+        assertEquals(1L, requestRepository.findById(other).orElseThrow().getVersion());
+
+        // Retried ids go through the single-request path and its per-request notification
+        verify(notificationService).createNotification(any(User.class),
+                eq("Great News! Your Request #" + raced + " is APPROVED."), eq("SUCCESS"));
+        verify(notificationService).createNotification(any(User.class),
+                eq("Great News! Your Request #" + other + " is APPROVED."), eq("SUCCESS"));
+        verify(notificationService, never()).createNotification(any(User.class), contains("Requests"), anyString());
+    }
+
+    @Test
+    void rejectsBatchesOverTheLimit() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1; i <= RequestBulkService.MAX_BULK_SIZE + 1; i++) ids.add(i);
+
+        RuntimeException tooMany = assertThrows(RuntimeException.class, () -> bulkService.bulkApprove(ids));
+        assertEquals("At most " + RequestBulkService.MAX_BULK_SIZE + " requests can be updated at once.", tooMany.getMessage());
+
+        RuntimeException empty = assertThrows(RuntimeException.class, () -> bulkService.bulkApprove(List.of()));
+        assertEquals("No request ids given.", empty.getMessage());
+
+        verifyNoInteractions(emailService, notificationService, requestStatsService);
+    }
+}
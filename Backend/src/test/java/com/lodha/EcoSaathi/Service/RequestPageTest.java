@@ -0,0 +1,154 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Dto.RequestPage;
+import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import com.lodha.EcoSaathi.Entity.User;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import com.lodha.EcoSaathi.Repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({RequestService.class, RequestStateMachine.class})
+class RequestPageTest {
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @MockitoBean
+    private ImageDerivativeService imageDerivativeService;
+
+    @MockitoBean
+    private PickupPersonService pickupPersonService;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private RequestStatsService requestStatsService;
+
+    @MockitoBean
+    private GeocodingService geocodingService;
+
+    private final LocalDateTime base = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("pages@test.com");
+        user.setFirstName("Asha");
+        user = userRepository.save(user);
+
+        // 25 requests; pairs share a createdAt so paging has to break ties on id.
+        // Every third is APPROVED, even ones are laptops.
+        for (int i = 0; i < 25; i++) {
+            Request request = new Request();
+            request.setUser(user);
+            request.setType("E-Waste");
+            request.setDeviceType(i % 2 == 0 ? "Laptop" : "Mobile");
+            request.setStatus(i % 3 == 0 ? RequestStatus.APPROVED : RequestStatus.PENDING);
+            request.setCreatedAt(base.plusMinutes(i / 2));
+            requestRepository.save(request);
+        }
+    }
+
+    private RequestPage page(String status, String deviceType, LocalDateTime from, LocalDateTime to,
+                             String cursor, int size) {
+        return requestService.getRequestPage(status, deviceType, from, to, cursor, size, false);
+    }
+
+    @Test
+    void cursorWalksEveryRequestOnceAcrossEqualTimestamps() {
+        List<Request> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        while (true) {
+            RequestPage page = page(null, null, null, null, cursor, 8);
+            pages++;
+            seen.addAll(page.getItems());
+            assertNull(page.getTotalCount());
+            if (!page.isHasMore()) {
+                assertNull(page.getNextCursor());
+                break;
+            }
+            cursor = page.getNextCursor();
+        }
+
+        assertEquals(4, pages);
+        assertEquals(25, seen.size());
+        assertEquals(25, seen.stream().map(Request::getId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            Request prev = seen.get(i - 1), cur = seen.get(i);
+            int byTime = cur.getCreatedAt().compareTo(prev.getCreatedAt());
+            assertTrue(byTime < 0 || (byTime == 0 && cur.getId() < prev.getId()));
+        }
+        // Page size 8 ends the first page on the first row of a tied pair; its twin must open the next page
+        assertEquals(seen.get(7).getCreatedAt(), seen.get(8).getCreatedAt());
+    }
+
+    @Test
+    void filtersByStatusDeviceAndDate() {
+        List<Request> approvedLaptops = page("approved", "Laptop", null, null, null, 50).getItems();
+        assertEquals(5, approvedLaptops.size()); // i = 0, 6, 12, 18, 24
+        assertTrue(approvedLaptops.stream().allMatch(r ->
+                r.getStatus() == RequestStatus.APPROVED && "Laptop".equals(r.getDeviceType())));
+
+        // from is inclusive, to is exclusive: minutes 3, 4 and 5 are rows 6..11
+        List<Request> window = page(null, " ", base.plusMinutes(3), base.plusMinutes(6), null, 50).getItems();
+        assertEquals(6, window.size());
+        assertTrue(window.stream().allMatch(r ->
+                !r.getCreatedAt().isBefore(base.plusMinutes(3)) && r.getCreatedAt().isBefore(base.plusMinutes(6))));
+
+        assertEquals(2, page("PENDING", "Mobile", base.plusMinutes(3), base.plusMinutes(6), null, 50).getItems().size());
+
+        RuntimeException unknown = assertThrows(RuntimeException.class,
+                () -> page("LOST", null, null, null, null, 10));
+        assertEquals("Unknown request status: LOST", unknown.getMessage());
+    }
+
+    @Test
+    void includeTotalCountsEveryMatchingRowNotJustThePage() {
+        RequestPage all = requestService.getRequestPage(null, null, null, null, null, 5, true);
+        assertEquals(5, all.getItems().size());
+        assertEquals(25L, all.getTotalCount());
+
+        RequestPage pending = requestService.getRequestPage("PENDING", null, null, null, all.getNextCursor(), 5, true);
+        assertEquals(16L, pending.getTotalCount()); // the cursor narrows the page, not the count
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2026-01-01T10:00".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().encodeToString("2026-01-01T10:00|abc".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("not a cursor!", noSeparator, badId)) {
+            RuntimeException e = assertThrows(RuntimeException.class, () -> page(null, null, null, null, cursor, 10));
+            assertEquals("Invalid page cursor: " + cursor, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.Request;
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import com.lodha.EcoSaathi.Entity.User;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import com.lodha.EcoSaathi.Repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(RequestStateMachine.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RequestStateMachineConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private RequestStateMachine stateMachine;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("race@test.com");
+        user.setFirstName("Race");
+        user.setLastName("Test");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private Request newPendingRequest() {
+        Request request = new Request();
+        request.setUser(user);
+        request.setType("E-Waste");
+        return requestRepository.save(request);
+    }
+
+    @Test
+    void exactlyOneConcurrentTransitionWins() throws Exception {
+        Long id = newPendingRequest().getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RequestStatus>> attempts = new ArrayList<>();
+
+        // Half the threads approve, half reject, all from PENDING at the same instant
+        for (int i = 0; i < THREADS; i++) {
+            RequestStatus target = (i % 2 == 0) ? RequestStatus.APPROVED : RequestStatus.REJECTED;
+            attempts.add(pool.submit(() -> {
+                start.await();
+                try {
+                    stateMachine.transition(id, RequestStatus.PENDING, target);
+                    return target;
+                } catch (RuntimeException lost) {
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+
+        List<RequestStatus> winners = new ArrayList<>();
+        for (Future<RequestStatus> attempt : attempts) {
+            RequestStatus won = attempt.get(30, TimeUnit.SECONDS);
+            if (won != null) winners.add(won);
+        }
+        pool.shutdown();
+
+        assertEquals(1, winners.size(), "exactly one transition must apply");
+        Request after = requestRepository.findById(id).orElseThrow();
+        assertEquals(winners.get(0), after.getStatus());
+        assertEquals(1L, after.getVersion());
+    }
+
+    @Test
+    void concurrentRequestsEachAdvanceExactlyOnce() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) ids.add(newPendingRequest().getId());
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                int wins = 0;
+                for (Long id : ids) {
+                    try {
+                        stateMachine.transition(id, RequestStatus.PENDING, RequestStatus.APPROVED);
+                        wins++;
+                    } catch (RuntimeException ignored) { }
+                }
+                return wins;
+            }));
+        }
+        start.countDown();
+
+        int totalWins = 0;
+        for (Future<Integer> worker : workers) totalWins += worker.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(ids.size(), totalWins);
+        for (Request r : requestRepository.findAllById(ids)) {
+            assertEquals(RequestStatus.APPROVED, r.getStatus());
+            assertEquals(1L, r.getVersion());
+        }
+    }
+
+    @Test
+    void rejectsTransitionsOutsideTheTable() {
+        Long id = newPendingRequest().getId();
+        assertThrows(RuntimeException.class,
+                () -> stateMachine.transition(id, RequestStatus.PENDING, RequestStatus.COMPLETED));
+        assertEquals(RequestStatus.PENDING, requestRepository.findStatusById(id));
+    }
+
+    @Test
+    void staleEntitySaveFailsAfterConcurrentTransition() {
+        Request stale = newPendingRequest();
+        stateMachine.transition(stale.getId(), RequestStatus.PENDING, RequestStatus.APPROVED);
+
+        stale.setDescription("edited from an old copy");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> requestRepository.save(stale));
+    }
+}
@@ -0,0 +1,65 @@
+package com.lodha.EcoSaathi.Service;
+
+import com.lodha.EcoSaathi.Entity.RequestStatus;
+import com.lodha.EcoSaathi.Repository.RequestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RequestStatsServiceTest {
+
+    private RequestStatsService stats;
+
+    @BeforeEach
+    void setUp() {
+        RequestRepository repository = mock(RequestRepository.class);
+        when(repository.countGroupByStatus()).thenReturn(List.<Object[]>of(new Object[]{RequestStatus.PENDING, 3L}));
+        stats = new RequestStatsService(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void transitionInsideATransactionWaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        stats.onTransition(1L, RequestStatus.PENDING, RequestStatus.APPROVED);
+
+        assertEquals(3L, stats.getAdminStats().get("pendingRequests"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(2L, stats.getAdminStats().get("pendingRequests"));
+        assertEquals(1L, stats.getAdminStats().get("approvedRequests"));
+    }
+
+    @Test
+    void rolledBackTransitionLeavesCountersAlone() {
+        TransactionSynchronizationManager.initSynchronization();
+        stats.onTransition(1L, RequestStatus.PENDING, RequestStatus.APPROVED);
+        stats.onCreated(1L, RequestStatus.PENDING);
+        // Rollback: synchronizations are dropped without afterCommit
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(3L, stats.getAdminStats().get("pendingRequests"));
+        assertEquals(0L, stats.getAdminStats().get("approvedRequests"));
+    }
+
+    @Test
+    void transitionOutsideATransactionAppliesImmediately() {
+        stats.onTransition(1L, RequestStatus.PENDING, RequestStatus.REJECTED);
+
+        assertEquals(2L, stats.getAdminStats().get("pendingRequests"));
+        assertEquals(1L, stats.getAdminStats().get("rejectedRequests"));
+    }
+}
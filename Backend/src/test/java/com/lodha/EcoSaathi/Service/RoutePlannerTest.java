@@ -0,0 +1,109 @@
+package com.lodha.EcoSaathi.Service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutePlannerTest {
+
+    private static double[][] randomStops(Random random, int n) {
+        double[][] stops = new double[2][n];
+        for (int i = 0; i < n; i++) {
+            stops[0][i] = 18.9 + random.nextDouble() * 0.3;
+            stops[1][i] = 72.8 + random.nextDouble() * 0.3;
+        }
+        return stops;
+    }
+
+    private static int[] identity(int n) {
+        return IntStream.range(0, n).toArray();
+    }
+
+    @Test
+    void visitsStopsAlongALineInOrder() {
+        // Shuffled stops on one meridian; starting south of all of them the best route just drives north
+        double[] lat = {19.05, 19.01, 19.09, 19.03, 19.07};
+        double[] lng = {72.8, 72.8, 72.8, 72.8, 72.8};
+
+        RoutePlanner.Route route = RoutePlanner.plan(19.0, 72.8, lat, lng);
+
+        assertArrayEquals(new int[]{1, 3, 0, 4, 2}, route.order());
+        assertEquals(RequestService.calculateHaversineDistance(19.0, 72.8, 19.09, 72.8), route.totalKm(), 1e-6);
+    }
+
+    @Test
+    void closeToOptimalOnSmallInstances() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            double[][] s = randomStops(random, 8);
+            RoutePlanner.Route route = RoutePlanner.plan(18.9, 72.8, s[0], s[1]);
+
+            double optimal = bestByBruteForce(s[0], s[1]);
+            assertEquals(route.totalKm(), RoutePlanner.routeLength(18.9, 72.8, s[0], s[1], route.order()), 1e-6);
+            assertTrue(route.totalKm() <= optimal * 1.05, route.totalKm() + " vs optimal " + optimal);
+        }
+    }
+
+    @Test
+    void everyStopIsVisitedOnceWithoutAStart() {
+        double[][] s = randomStops(new Random(5), 40);
+        RoutePlanner.Route route = RoutePlanner.plan(null, null, s[0], s[1]);
+
+        int[] sorted = route.order().clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(identity(40), sorted);
+        assertTrue(route.totalKm() < RoutePlanner.routeLength(null, null, s[0], s[1], identity(40)));
+    }
+
+    // Timing run; excluded from the default build, run with -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void benchmarkStopsPerAgentAndParallelFleet() {
+        Random random = new Random(42);
+        for (int n : new int[]{50, 100, 200, 500}) {
+            double[][] s = randomStops(random, n);
+            long start = System.nanoTime();
+            RoutePlanner.Route route = RoutePlanner.plan(18.9, 72.8, s[0], s[1]);
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(route.totalKm() < RoutePlanner.routeLength(18.9, 72.8, s[0], s[1], identity(n)));
+            assertTrue(ms < 5_000, n + " stops took " + ms + " ms");
+        }
+
+        List<double[][]> fleet = IntStream.range(0, 16).mapToObj(i -> randomStops(random, 150)).toList();
+        long start = System.nanoTime();
+        double[] sequentialKm = fleet.stream().mapToDouble(s -> RoutePlanner.plan(18.9, 72.8, s[0], s[1]).totalKm()).toArray();
+        long sequentialMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        double[] parallelKm = fleet.parallelStream().mapToDouble(s -> RoutePlanner.plan(18.9, 72.8, s[0], s[1]).totalKm()).toArray();
+        long parallelMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertArrayEquals(sequentialKm, parallelKm);
+        assertTrue(sequentialMs < 10_000 && parallelMs < 10_000,
+                "16 agents x 150 stops: sequential " + sequentialMs + " ms, fork-join " + parallelMs + " ms");
+    }
+
+    private static double bestByBruteForce(double[] lat, double[] lng) {
+        int[] perm = identity(lat.length);
+        double[] best = {Double.MAX_VALUE};
+        permute(perm, 0, lat, lng, best);
+        return best[0];
+    }
+
+    private static void permute(int[] perm, int k, double[] lat, double[] lng, double[] best) {
+        if (k == perm.length) {
+            best[0] = Math.min(best[0], RoutePlanner.routeLength(18.9, 72.8, lat, lng, perm));
+            return;
+        }
+        for (int i = k; i < perm.length; i++) {
+            int t = perm[k]; perm[k] = perm[i]; perm[i] = t;
+            permute(perm, k + 1, lat, lng, best);
+            t = perm[k]; perm[k] = perm[i]; perm[i] = t;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.lodha.EcoSaathi.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLongLongMapTest {
+
+    private static final long MISSING = -1L;
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        StripedLongLongMap map = new StripedLongLongMap(8);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    long value = random.nextInt(100);
+                    map.put(key, value);
+                    reference.put(key, value);
+                }
+                case 1 -> {
+                    map.remove(key);
+                    reference.remove(key);
+                }
+                case 2 -> {
+                    long expected = reference.containsKey(key) ? Math.max(0, reference.get(key) - 1) : MISSING;
+                    if (reference.containsKey(key)) reference.put(key, expected);
+                    assertEquals(expected, map.addIfPresent(key, -1, 0, MISSING));
+                }
+                default -> assertEquals(reference.getOrDefault(key, MISSING).longValue(), map.get(key, MISSING));
+            }
+        }
+        assertEquals(reference.size(), map.size());
+        reference.forEach((k, v) -> assertEquals(v.longValue(), map.get(k, MISSING)));
+    }
+
+    @Test
+    void putIfAbsentKeepsExistingValue() {
+        StripedLongLongMap map = new StripedLongLongMap(4);
+
+        assertEquals(5, map.putIfAbsent(1L, 5));
+        assertEquals(5, map.putIfAbsent(1L, 9));
+        assertEquals(MISSING, map.addIfPresent(2L, 1, 0, MISSING));
+        assertThrows(IllegalArgumentException.class, () -> map.put(Long.MIN_VALUE, 1));
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        StripedLongLongMap map = new StripedLongLongMap(16);
+        int users = 100;
+        int threads = 16;
+        int perThread = 10_000;
+        for (long u = 0; u < users; u++) map.put(u, 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) map.addIfPresent(i % users, 1, 0, MISSING);
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        long total = 0;
+        for (long u = 0; u < users; u++) total += map.get(u, MISSING);
+        assertEquals((long) threads * perThread, total);
+    }
+}
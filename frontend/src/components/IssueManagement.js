@@ -29,21 +29,26 @@ export default function IssueManagement({ API_BASE_URL }) {
   const [searchTerm, setSearchTerm] = useState("");
   const [filterStatus, setFilterStatus] = useState("ALL");
   const [showSuccess, setShowSuccess] = useState("");
+  const [nextCursor, setNextCursor] = useState(null);
+  // Once older pages are loaded the cursor belongs to them, not to the polled first page
+  const olderLoadedRef = useRef(false);
   const messagesEndRef = useRef(null);
 
-  // 1. Fetch Issues
+  // 1. Fetch Issues (summaries, newest activity first; older pages on demand)
   const fetchIssues = async () => {
     try {
       setLoading(true);
-      const url = `${API_BASE_URL}/all`;
-      console.log("Fetching issues from:", url);
-
-      const res = await axios.get(url);
-      if (Array.isArray(res.data)) {
-        const sorted = res.data.sort((a, b) => new Date(b.lastUpdatedAt) - new Date(a.lastUpdatedAt));
-        setIssues(sorted);
-      } else {
-        setIssues([]);
+      const res = await axios.get(`${API_BASE_URL}/all`);
+      const items = Array.isArray(res.data?.items) ? res.data.items : [];
+      // Keep older pages already loaded, minus tickets that moved up to the first page
+      setIssues((prev) => {
+        const fresh = new Set(items.map((i) => i.id));
+        const oldest = items.length ? items[items.length - 1].lastUpdatedAt : null;
+        const older = prev.filter((i) => !fresh.has(i.id) && oldest && i.lastUpdatedAt < oldest);
+        return [...items, ...older];
+      });
+      if (!olderLoadedRef.current) {
+        setNextCursor(res.data?.nextCursor ?? null);
       }
     } catch (err) {
       console.error("Error fetching issues:", err);
@@ -53,6 +58,22 @@ export default function IssueManagement({ API_BASE_URL }) {
     }
   };
 
+  const loadOlderIssues = async () => {
+    if (!nextCursor) return;
+    try {
+      const res = await axios.get(`${API_BASE_URL}/all?cursor=${encodeURIComponent(nextCursor)}`);
+      const items = Array.isArray(res.data?.items) ? res.data.items : [];
+      setIssues((prev) => {
+        const seen = new Set(prev.map((i) => i.id));
+        return [...prev, ...items.filter((i) => !seen.has(i.id))];
+      });
+      olderLoadedRef.current = true;
+      setNextCursor(res.data?.nextCursor ?? null);
+    } catch (err) {
+      console.error("Error loading older issues:", err);
+    }
+  };
+
   useEffect(() => {
     fetchIssues();
     const interval = setInterval(fetchIssues, 30000);
@@ -141,8 +162,8 @@ export default function IssueManagement({ API_BASE_URL }) {
   const filteredIssues = issues.filter(issue => {
     const matchesSearch = searchTerm === "" || 
       issue.subject.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      issue.description.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      (issue.user?.firstName?.toLowerCase().includes(searchTerm.toLowerCase())) ||
+      (issue.lastMessagePreview || "").toLowerCase().includes(searchTerm.toLowerCase()) ||
+      (issue.reporterName?.toLowerCase().includes(searchTerm.toLowerCase())) ||
       issue.id.toString().includes(searchTerm);
     
     const matchesStatus = filterStatus === "ALL" || issue.status === filterStatus;
@@ -347,15 +368,15 @@ export default function IssueManagement({ API_BASE_URL }) {
                     <div className="ticket-card-body">
                       <h4 className="ticket-subject">{issue.subject}</h4>
                       <p className="ticket-preview">
-                        {issue.description.length > 100 
-                          ? `${issue.description.substring(0, 100)}...` 
-                          : issue.description}
+                        {(issue.lastMessagePreview || "").length > 100
+                          ? `${issue.lastMessagePreview.substring(0, 100)}...`
+                          : issue.lastMessagePreview}
                       </p>
                       
                       <div className="ticket-meta">
                         <div className="meta-item">
                           <FaUser className="meta-icon" />
-                          <span>{issue.user?.firstName || issue.user?.name || 'Pickup Person'}</span>
+                          <span>{issue.reporterName || 'Pickup Person'}</span>
                         </div>
                         <div className="meta-item">
                           <FaClock className="meta-icon" />
@@ -363,7 +384,7 @@ export default function IssueManagement({ API_BASE_URL }) {
                         </div>
                         <div className="meta-item">
                           <FaCommentDots className="meta-icon" />
-                          <span>{issue.messages?.length || 0} messages</span>
+                          <span>{issue.messageCount || 0} messages</span>
                         </div>
                       </div>
                     </div>
@@ -382,6 +403,11 @@ export default function IssueManagement({ API_BASE_URL }) {
                   </div>
                 ))
               )}
+              {nextCursor && (
+                <button className="view-btn" onClick={loadOlderIssues}>
+                  Load older tickets
+                </button>
+              )}
             </div>
           </div>
         </div>
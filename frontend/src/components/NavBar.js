@@ -111,6 +111,26 @@ export default function NavBar() {
     };
 
     fetchNotifications();
+
+    // 📡 Live updates: server pushes new notifications and unread count (no polling)
+    const source = new EventSource(
+      `${API_BASE_URL}/api/notifications/user/${user.id}/stream`
+    );
+    source.addEventListener("notification", (event) => {
+      const notification = JSON.parse(event.data);
+      setNotifications((prev) =>
+        prev.some((n) => n.id === notification.id)
+          ? prev
+          : [notification, ...prev]
+      );
+    });
+    source.addEventListener("unread-count", (event) => {
+      const count = Number(event.data);
+      setUnreadCount(Number.isFinite(count) ? count : 0);
+    });
+    // EventSource reconnects by itself after network errors
+
+    return () => source.close();
   }, [user?.id]);
 
   // 🔔 Mark single notification as read
@@ -139,6 +159,26 @@ export default function NavBar() {
     }
   };
 
+  // ✔️ Mark all notifications as read (single bulk update on the server)
+  const handleMarkAllRead = async () => {
+    if (!user || !user.id) return;
+
+    try {
+      await fetch(
+        `${API_BASE_URL}/api/notifications/user/${user.id}/read-all`,
+        {
+          method: "PUT",
+        }
+      );
+      setNotifications((prev) =>
+        prev.map((n) => ({ ...n, read: true, isRead: true }))
+      );
+      setUnreadCount(0);
+    } catch (error) {
+      console.error("Error marking notifications as read:", error);
+    }
+  };
+
   // 🔁 Clear all notifications
   const handleClearAllNotifications = async () => {
     if (!user || !user.id) return;
@@ -368,6 +408,14 @@ export default function NavBar() {
 
                   {notifications.length > 0 && (
                     <div className="notification-footer">
+                      {unreadCount > 0 && (
+                        <button
+                          className="notification-clear-btn"
+                          onClick={handleMarkAllRead}
+                        >
+                          Mark all read
+                        </button>
+                      )}
                       <button
                         className="notification-clear-btn"
                         onClick={handleClearAllNotifications}
@@ -24,6 +24,10 @@ import {
   FaRecycle
 } from "react-icons/fa";
 
+// Gallery shows the 200px thumbnail; clicking opens the full photo.
+// The server falls back to the original until the thumbnail has been generated.
+const thumbnailUrl = (url) => `${url}${url.includes("?") ? "&" : "?"}variant=thumb`;
+
 export default function RequestHistory() {
   const { id } = useParams();
   const navigate = useNavigate();
@@ -517,8 +521,9 @@ export default function RequestHistory() {
                                   {req.photoUrls.map((img, i) => (
                                     <div key={i} className="photo-thumbnail">
                                       <img
-                                        src={img}
+                                        src={thumbnailUrl(img)}
                                         alt={`photo-${i}`}
+                                        loading="lazy"
                                         className="gallery-image"
                                         onClick={(e) => {
                                           e.stopPropagation();
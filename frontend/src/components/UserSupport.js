@@ -83,8 +83,15 @@ export default function UserSupport() {
   const fetchIssues = async () => {
     if (!id) return;
     try {
-      const res = await axios.get(`${API_BASE}/user/${id}`);
-      const issuesData = Array.isArray(res.data) ? res.data : [];
+      // Follow the cursor so the list and the ticket stats cover every ticket
+      const issuesData = [];
+      let cursor = null;
+      do {
+        const params = cursor ? `&cursor=${encodeURIComponent(cursor)}` : "";
+        const res = await axios.get(`${API_BASE}/user/${id}?size=200${params}`);
+        if (Array.isArray(res.data?.items)) issuesData.push(...res.data.items);
+        cursor = res.data?.nextCursor ?? null;
+      } while (cursor);
       setIssues(issuesData);
       setFilteredIssues(issuesData);
     } catch (err) {
@@ -105,7 +112,7 @@ export default function UserSupport() {
     if (searchTerm) {
       filtered = filtered.filter(issue =>
         issue.subject.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        issue.description.toLowerCase().includes(searchTerm.toLowerCase())
+        (issue.lastMessagePreview || "").toLowerCase().includes(searchTerm.toLowerCase())
       );
     }
     
@@ -175,10 +182,8 @@ export default function UserSupport() {
       setSelectedIssue(res.data);
       setReplyText("");
       
-      // Update issue in list
-      setIssues(prev => prev.map(issue => 
-        issue.id === selectedIssue.id ? res.data : issue
-      ));
+      // Refresh the list so count and preview include the new reply
+      fetchIssues();
     } catch (err) {
       alert("Failed to send reply. Please try again.");
     }
@@ -651,11 +656,11 @@ export default function UserSupport() {
                                 </div>
                               </div>
                               <p className="ticket-preview">
-                                {issue.description?.substring(0, 120)}...
+                                {issue.lastMessagePreview}
                               </p>
                               <div className="ticket-footer">
                                 <span className="message-count">
-                                  <FiMessageSquare /> {issue.messages?.length || 0} messages
+                                  <FiMessageSquare /> {issue.messageCount || 0} messages
                                 </span>
                                 <span className="view-chat">Click to view chat →</span>
                               </div>
@@ -2,9 +2,12 @@ import React, { useEffect, useState } from "react";
 import { useParams } from "react-router-dom";
 import { api } from "../api";
 
+const API_BASE_URL = "http://localhost:8080";
+
 export default function UserTrackPickup() {
   const { requestId } = useParams();
   const [url, setUrl] = useState(null);
+  const [live, setLive] = useState(null);
 
   const fetchUrl = async () => {
     try {
@@ -20,12 +23,28 @@ export default function UserTrackPickup() {
 
   useEffect(() => {
     fetchUrl();
+
+    // 📡 Server pushes the agent's position, distance and ETA whenever it moves (no polling)
+    const source = new EventSource(
+      `${API_BASE_URL}/api/pickup/request/${requestId}/stream`
+    );
+    source.addEventListener("location", (event) => {
+      setLive(JSON.parse(event.data));
+    });
+
+    return () => source.close();
   }, [requestId]);
 
   return (
     <div style={{ padding: "20px", textAlign: "center" }}>
       <h2>Opening Google Maps...</h2>
       <p>If Google Maps didn’t open, <a href={url} target="_blank">click here</a>.</p>
+      {live && (
+        <p>
+          🚚 {live.distanceKm != null ? `${live.distanceKm} km away` : "On the way"}
+          {live.estimatedTime ? ` · ETA ${live.estimatedTime}` : ""}
+        </p>
+      )}
     </div>
   );
 }